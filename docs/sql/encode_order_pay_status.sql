@@ -0,0 +1,25 @@
+-- orders.pay_status: varchar('대기', '완료') -> char(1) 코드('W', 'C') + (pay_status, id) 인덱스
+-- 마이그레이션 도구(Flyway 등)에 연결되어 있지 않다. 이미 운영 중인 DB 에 손으로 적용하는 절차다.
+-- 로컬(H2)은 ddl-auto 로 새로 만들어지니 필요 없다.
+-- 새 코드(PayStatusConverter)를 배포하기 전에 1~3 을, 배포와 함께 4 를 적용한다.
+
+-- 1. 새 컬럼
+alter table orders add column pay_status_code char(1);
+
+-- 2. 채우기, 한 번에 전부 update 하지 않고 id 범위마다 따로 커밋한다. (긴 락, 큰 undo 없이)
+--    :from 을 min(id) 부터 :step(예: 10000) 씩 올리면서 max(id) 를 넘을 때까지 반복한다.
+update orders
+   set pay_status_code = case pay_status when '대기' then 'W' when '완료' then 'C' end
+ where id >= :from and id < :from + :step
+   and pay_status_code is null
+   and pay_status is not null;
+commit;
+
+-- 3. 확인, 0 이어야 한다. 그 사이 새로 들어온 주문이 있으면 마지막 범위부터 2 를 다시 실행한다.
+select count(*) from orders where pay_status is not null and pay_status_code is null;
+
+-- 4. 컬럼 교체와 인덱스
+alter table orders drop column pay_status;
+alter table orders rename column pay_status_code to pay_status;
+
+create index idx_orders_pay_status_id on orders (pay_status, id);
@@ -0,0 +1,78 @@
+package hello.springtx.bench;
+
+import hello.springtx.tx.aspectj.AspectJWeavingVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @Transactional 적용 방식 비교, proxy: CGLIB 프록시 + 인터셉터 체인, aspectj: 컴파일 후 위빙
+ * ./gradlew jmh -Paspectj 로 실행한다. (aspectj 는 위빙한 빌드에서만 뜬다.)
+ * 위빙한 빌드의 proxy 는 연결되지 않은 애스펙트도 한 번 거치므로, 순수 proxy 값은 -Paspectj 없이 ProxyDispatchBenchmark 로 본다.
+ *
+ * tx: 외부에서 트랜잭션 매서드 호출, selfInvocation: 내부 호출 (proxy 는 트랜잭션 없이 실행된다.)
+ */
+@State(Scope.Benchmark)
+public class AdviceModeBenchmark {
+
+    @Param({"proxy", "aspectj"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private CallService callService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("aspectj".equals(mode) && !AspectJWeavingVerifier.isWoven(CallService.class)) {
+            throw new IllegalStateException("AspectJ 위빙 빌드가 아닙니다. ./gradlew jmh -Paspectj 로 실행해주세요.");
+        }
+        // 측정 어드바이저도 프록시를 만드니 끄고 트랜잭션 적용 방식만 비교한다.
+        context = BenchmarkContext.start(new String[]{"tx.advice-mode=" + mode, "tx.metrics.enabled=false"},
+                CallServiceConfig.class);
+        callService = context.getBean(CallService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean tx() {
+        return callService.tx();
+    }
+
+    @Benchmark
+    public boolean selfInvocation() {
+        return callService.external();
+    }
+
+    // 컴포넌트 스캔에 걸리지 않도록 @Configuration 없이 소스로만 넘긴다.
+    static class CallServiceConfig {
+
+        @Bean
+        public CallService callService() {
+            return new CallService();
+        }
+    }
+
+    static class CallService {
+
+        @Transactional
+        public boolean tx() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        public boolean external() {
+            return tx();
+        }
+    }
+}
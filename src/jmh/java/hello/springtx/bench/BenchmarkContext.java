@@ -0,0 +1,49 @@
+package hello.springtx.bench;
+
+import hello.springtx.SpringtxApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 벤치마크마다 애플리케이션을 새로 띄운다.
+ * 매번 새 인메모리 H2 를 쓰고 (generate-unique-name), 측정을 흐리는 로그는 끈다.
+ */
+final class BenchmarkContext {
+
+    private static final String[] QUIET = {
+            "spring.datasource.generate-unique-name=true",
+            "logging.level.root=WARN",
+            "logging.level.org.springframework.jdbc.datasource.DataSourceTransactionManager=WARN",
+            "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+            "logging.level.org.hibernate.resource.transaction=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "tx.recorder.dump-on-unexpected-rollback=false"
+    };
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(Class<?>... extraSources) {
+        return start(new String[0], extraSources);
+    }
+
+    // 벤치마크가 설정을 바꿔서 띄울 때, QUIET 보다 나중에 넣어서 덮어쓴다.
+    static ConfigurableApplicationContext start(String[] properties, Class<?>... extraSources) {
+        List<Class<?>> sources = new ArrayList<>();
+        sources.add(SpringtxApplication.class);
+        sources.addAll(Arrays.asList(extraSources));
+        return new SpringApplicationBuilder(sources.toArray(new Class<?>[0]))
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(QUIET)
+                .properties(properties)
+                .run();
+    }
+}
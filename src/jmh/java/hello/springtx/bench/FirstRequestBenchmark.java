@@ -0,0 +1,77 @@
+package hello.springtx.bench;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애플리케이션을 띄운 직후 첫 요청에 걸리는 시간
+ * 반복마다 컨텍스트를 새로 띄우고 한 번만 호출한다. (SingleShotTime)
+ * precompute=true 면 트랜잭션 속성을 시작할 때 미리 해석한다. (이름 있는 쿼리는 두 경우 모두 시작할 때 컴파일된다.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class FirstRequestBenchmark {
+
+    @Param({"true", "false"})
+    public boolean precompute;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private MemberRepository memberRepository;
+    private LogRepository logRepository;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = BenchmarkContext.start(new String[]{"tx.precompute.enabled=" + precompute});
+        orderService = context.getBean(OrderService.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        logRepository = context.getBean(LogRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order firstOrder() throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUsername("정상");
+        orderService.order(order);
+        return order;
+    }
+
+    @Benchmark
+    public Optional<Member> firstMemberFind() {
+        return memberRepository.find("first");
+    }
+
+    @Benchmark
+    public Optional<Log> firstLogFind() {
+        return logRepository.find("first");
+    }
+}
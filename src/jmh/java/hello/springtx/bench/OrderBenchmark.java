@@ -0,0 +1,67 @@
+package hello.springtx.bench;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * OrderService.order 의 세 경로
+ * success: 커밋, systemException: 런타임 예외로 롤백, notEnoughMoney: 체크 예외지만 커밋
+ */
+@State(Scope.Benchmark)
+public class OrderBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order success() throws NotEnoughMoneyException {
+        Order order = newOrder("정상");
+        orderService.order(order);
+        return order;
+    }
+
+    @Benchmark
+    public Exception systemException() throws NotEnoughMoneyException {
+        try {
+            orderService.order(newOrder("예외"));
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new IllegalStateException("시스템 예외가 발생해야 합니다.");
+    }
+
+    @Benchmark
+    public Exception notEnoughMoney() {
+        try {
+            orderService.order(newOrder("잔고부족"));
+        } catch (NotEnoughMoneyException e) {
+            return e;
+        }
+        throw new IllegalStateException("잔고 부족 예외가 발생해야 합니다.");
+    }
+
+    private static Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
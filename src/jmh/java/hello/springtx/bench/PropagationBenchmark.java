@@ -0,0 +1,65 @@
+package hello.springtx.bench;
+
+import hello.springtx.propagation.MemberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * REQUIRED 참여 vs REQUIRES_NEW (기존 트랜잭션 보류 + 새 커넥션)
+ * requiredJoin/requiresNew: 빈 외부 트랜잭션 안에서 내부 트랜잭션 하나
+ * joinV1: 회원 저장은 REQUIRED 로 참여, 로그 저장은 REQUIRES_NEW
+ */
+@State(Scope.Benchmark)
+public class PropagationBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private TransactionTemplate outer;
+    private TransactionTemplate required;
+    private TransactionTemplate requiresNew;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberService = context.getBean(MemberService.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        outer = new TransactionTemplate(transactionManager);
+        required = new TransactionTemplate(transactionManager);
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Boolean requiredJoin() {
+        return outer.execute(status -> required.execute(inner -> inner.isNewTransaction()));
+    }
+
+    @Benchmark
+    public Boolean requiresNew() {
+        return outer.execute(status -> requiresNew.execute(inner -> inner.isNewTransaction()));
+    }
+
+    @Benchmark
+    public void joinV1() {
+        // username 은 유일해야 하므로 번호를 붙인다.
+        memberService.joinV1("bench-" + sequence.incrementAndGet());
+    }
+}
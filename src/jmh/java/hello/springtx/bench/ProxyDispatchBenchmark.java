@@ -0,0 +1,77 @@
+package hello.springtx.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * CGLIB 프록시 호출 vs 직접 호출 (TxBasicTest, InternalCallV1Test 구성)
+ * proxyTx: 프록시 + 트랜잭션, proxyNonTx: 프록시만 거치고 트랜잭션 없음,
+ * directTx: 프록시를 안 거친 내부 호출과 같다. (트랜잭션 적용 X)
+ */
+@State(Scope.Benchmark)
+public class ProxyDispatchBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CallService proxy;
+    private CallService target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(CallServiceConfig.class);
+        proxy = context.getBean(CallService.class);
+        target = (CallService) AopProxyUtils.getSingletonTarget(proxy);
+        if (target == null || target == proxy) {
+            throw new IllegalStateException("CallService 가 프록시가 아닙니다.");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean proxyTx() {
+        return proxy.tx();
+    }
+
+    @Benchmark
+    public boolean proxyNonTx() {
+        return proxy.nonTx();
+    }
+
+    @Benchmark
+    public boolean directTx() {
+        return target.tx();
+    }
+
+    // 컴포넌트 스캔에 걸리지 않도록 @Configuration 없이 소스로만 넘긴다.
+    static class CallServiceConfig {
+
+        @Bean
+        public CallService callService() {
+            return new CallService();
+        }
+    }
+
+    static class CallService {
+
+        @Transactional
+        public boolean tx() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        public boolean nonTx() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package hello.springtx.bench;
+
+import hello.springtx.tx.InstrumentedTransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSourceTransactionManager vs JpaTransactionManager (BasicTxTest.Config 에서 바꾸던 것)
+ * 같은 DataSource 위에서 빈 트랜잭션과 쿼리 하나짜리 트랜잭션을 비교한다.
+ * instrumented 는 애플리케이션이 실제로 쓰는 InstrumentedTransactionManager(Jpa) 이다.
+ */
+@State(Scope.Benchmark)
+public class TransactionManagerBenchmark {
+
+    @Param({"dataSource", "jpa", "instrumented"})
+    public String manager;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate template;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        DataSource dataSource = context.getBean(DataSource.class);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        template = new TransactionTemplate(transactionManager(dataSource));
+    }
+
+    private PlatformTransactionManager transactionManager(DataSource dataSource) {
+        PlatformTransactionManager bean = context.getBean(PlatformTransactionManager.class);
+        switch (manager) {
+            case "dataSource":
+                return new DataSourceTransactionManager(dataSource);
+            case "jpa":
+                return bean instanceof InstrumentedTransactionManager
+                        ? ((InstrumentedTransactionManager) bean).getDelegate() : bean;
+            case "instrumented":
+                return bean;
+            default:
+                throw new IllegalArgumentException("unknown manager=" + manager);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Boolean emptyTransaction() {
+        return template.execute(status -> status.isNewTransaction());
+    }
+
+    @Benchmark
+    public Integer selectOne() {
+        return template.execute(status -> jdbcTemplate.queryForObject("select 1", Integer.class));
+    }
+}
@@ -0,0 +1,10 @@
+package hello.springtx;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled 작업 (로그 정리 등), 각 작업의 cron 이 "-" 면 실행하지 않는다.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
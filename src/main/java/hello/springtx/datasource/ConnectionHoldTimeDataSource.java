@@ -0,0 +1,85 @@
+package hello.springtx.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// 풀에서 꺼낸 물리 커넥션을 close(반납) 할 때까지의 시간을 트랜잭션 이름별로 기록한다.
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    private final ConnectionHoldTimeRecorder recorder;
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, ConnectionHoldTimeRecorder recorder) {
+        super(targetDataSource);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return holdTimeProxy(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return holdTimeProxy(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection holdTimeProxy(Connection target) {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return (Connection) Proxy.newProxyInstance(ConnectionHoldTimeDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new HoldTimeInvocationHandler(target, name != null ? name : ConnectionHoldTimeRecorder.NO_TRANSACTION));
+    }
+
+    private class HoldTimeInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final String transactionName;
+        private final long acquiredNanos = System.nanoTime();
+        private boolean closed;
+
+        HoldTimeInvocationHandler(Connection target, String transactionName) {
+            this.target = target;
+            this.transactionName = transactionName;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        recorder.record(transactionName, System.nanoTime() - acquiredNanos);
+                    }
+                    break;
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package hello.springtx.datasource;
+
+import hello.springtx.tx.metrics.LatencyHistogram;
+import hello.springtx.tx.metrics.LatencySnapshot;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 트랜잭션 이름별로 물리 커넥션을 잡고 있던 시간을 모은다.
+public class ConnectionHoldTimeRecorder {
+
+    // 트랜잭션 밖에서 꺼낸 커넥션
+    public static final String NO_TRANSACTION = "(no transaction)";
+
+    private final ConcurrentMap<String, LatencyHistogram> holdTimes = new ConcurrentHashMap<>();
+
+    public void record(String transactionName, long holdNanos) {
+        holdTimes.computeIfAbsent(transactionName, name -> new LatencyHistogram()).record(holdNanos);
+    }
+
+    public Map<String, LatencySnapshot> getStats() {
+        Map<String, LatencySnapshot> result = new TreeMap<>();
+        holdTimes.forEach((name, histogram) -> result.put(name, histogram.snapshot()));
+        return result;
+    }
+
+    @Nullable
+    public LatencySnapshot getStats(String transactionName) {
+        LatencyHistogram histogram = holdTimes.get(transactionName);
+        return histogram != null ? histogram.snapshot() : null;
+    }
+
+    public void reset() {
+        holdTimes.clear();
+    }
+}
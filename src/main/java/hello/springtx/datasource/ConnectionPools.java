@@ -0,0 +1,27 @@
+package hello.springtx.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 커넥션 풀 크기에 맞춰 스레드 수, 퍼밋 수를 정하는 설정들이 같이 쓴다.
+ * 풀 크기를 알 수 없으면(Hikari 가 아니면) 직접 설정할 속성 이름을 알려주고 시작하지 않는다.
+ */
+public final class ConnectionPools {
+
+    private ConnectionPools() {
+    }
+
+    public static int maximumPoolSize(DataSource dataSource, String overrideProperty) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("커넥션 풀 크기를 확인할 수 없습니다.", e);
+        }
+        throw new IllegalStateException("커넥션 풀 크기를 알 수 없습니다. " + overrideProperty + " 를 설정해주세요.");
+    }
+}
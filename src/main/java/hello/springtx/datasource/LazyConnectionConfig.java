@@ -0,0 +1,44 @@
+package hello.springtx.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * datasource.lazy-connection.enabled=true 이면 DataSource 를 LazyConnectionDataSourceProxy 로 감싼다.
+ * 트랜잭션 시작 시점(setAutoCommit, setReadOnly)에는 풀에서 커넥션을 꺼내지 않고
+ * 첫 SQL 을 실행할 때 꺼낸다. SQL 이 없는 트랜잭션은 커넥션을 아예 꺼내지 않는다.
+ * 커넥션은 트랜잭션이 끝날 때(커밋/롤백 직후) 반납되고, 그 사이 시간을 ConnectionHoldTimeRecorder 에 남긴다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.lazy-connection", name = "enabled", havingValue = "true")
+public class LazyConnectionConfig {
+
+    @Bean
+    public static ConnectionHoldTimeRecorder connectionHoldTimeRecorder() {
+        return new ConnectionHoldTimeRecorder();
+    }
+
+    @Bean
+    public static BeanPostProcessor lazyConnectionDataSourcePostProcessor(ConnectionHoldTimeRecorder connectionHoldTimeRecorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                if (bean instanceof LazyConnectionDataSourceProxy) {
+                    // 라우팅 설정처럼 이미 lazy 로 감싼 경우 안쪽에 기록만 끼워 넣는다.
+                    LazyConnectionDataSourceProxy lazy = (LazyConnectionDataSourceProxy) bean;
+                    lazy.setTargetDataSource(new ConnectionHoldTimeDataSource(lazy.getTargetDataSource(), connectionHoldTimeRecorder));
+                    return lazy;
+                }
+                return new LazyConnectionDataSourceProxy(new ConnectionHoldTimeDataSource((DataSource) bean, connectionHoldTimeRecorder));
+            }
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package hello.springtx.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "datasource.lazy-connection")
+public class LazyConnectionProperties {
+
+    // 트랜잭션 시작이 아니라 첫 SQL 시점에 풀에서 커넥션을 꺼낸다.
+    private boolean enabled = false;
+}
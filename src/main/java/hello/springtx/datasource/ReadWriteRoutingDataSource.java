@@ -0,0 +1,50 @@
+package hello.springtx.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * 커넥션을 얻는 시점의 트랜잭션이 readOnly 이면 replica, 아니면 primary 커넥션을 준다.
+ * 트랜잭션 시작(doBegin) 시점에는 아직 readOnly 여부가 동기화되지 않았기 때문에
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 시점에 고르도록 해야 한다.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final long stickinessNanos;
+
+    // 이 스레드에서 마지막으로 primary 쓰기 트랜잭션이 커밋된 시각
+    private final ThreadLocal<Long> lastWriteNanos = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(Duration stickiness) {
+        this.stickinessNanos = stickiness.toNanos();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return recentlyWritten() ? Target.PRIMARY : Target.REPLICA;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 커넥션을 연 시각이 아니라 커밋 시각부터 센다. 긴 쓰기 트랜잭션도 커밋 직후에는 primary 에서 읽는다.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWriteNanos.set(System.nanoTime());
+                }
+            });
+        }
+        return Target.PRIMARY;
+    }
+
+    private boolean recentlyWritten() {
+        Long lastWrite = lastWriteNanos.get();
+        return lastWrite != null && System.nanoTime() - lastWrite < stickinessNanos;
+    }
+}
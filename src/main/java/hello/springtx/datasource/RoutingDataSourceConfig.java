@@ -0,0 +1,54 @@
+package hello.springtx.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// datasource.routing.enabled=true 이면 primary/replica 두 풀을 만들고 readOnly 트랜잭션을 replica 로 보낸다.
+// 스키마(ddl-auto)는 primary 에만 만든다. replica 는 복제로 같은 스키마를 받는 디비여야 한다.
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, RoutingDataSourceProperties properties,
+                                 Environment environment) throws Exception {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        DataSourceProperties replicaProperties = binder.bind("datasource.routing.replica", DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("datasource.routing.replica.url 을 설정해주세요."));
+        replicaProperties.afterPropertiesSet();
+        HikariDataSource replica = replicaProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("datasource.routing.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(properties.getStickiness());
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Target.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // 첫 SQL 을 실행할 때까지 실제 커넥션을 미뤄야 readOnly 여부를 보고 고를 수 있다.
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,26 @@
+package hello.springtx.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * readOnly 트랜잭션을 replica 로 보내는 라우팅 설정
+ * primary 는 spring.datasource.*, spring.datasource.hikari.* 를 그대로 쓰고
+ * replica 는 datasource.routing.replica.*(url, username, password, driver-class-name),
+ * datasource.routing.replica.hikari.* 로 설정한다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled = false;
+
+    // 쓰기 트랜잭션 직후 이 시간 동안은 같은 스레드의 readOnly 트랜잭션도 primary 에서 읽는다. (read-your-writes)
+    private Duration stickiness = Duration.ofSeconds(1);
+}
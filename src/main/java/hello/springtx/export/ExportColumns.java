@@ -0,0 +1,35 @@
+package hello.springtx.export;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+// 엔티티를 내보낼 컬럼 목록, 컬럼 이름과 값을 꺼내는 함수
+public class ExportColumns<T> {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<T, Object>> extractors = new ArrayList<>();
+
+    public ExportColumns<T> column(String name, Function<T, Object> extractor) {
+        names.add(name);
+        extractors.add(extractor);
+        return this;
+    }
+
+    public List<String> names() {
+        return Collections.unmodifiableList(names);
+    }
+
+    // 행마다 새 배열을 만들지 않도록 호출하는 쪽 버퍼에 채운다.
+    public Object[] values(T entity, Object[] buffer) {
+        for (int i = 0; i < extractors.size(); i++) {
+            buffer[i] = extractors.get(i).apply(entity);
+        }
+        return buffer;
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
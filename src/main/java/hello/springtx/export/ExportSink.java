@@ -0,0 +1,21 @@
+package hello.springtx.export;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 내보내기 대상, 행을 하나씩 받아서 바로 써 내려간다. (전체 결과를 메모리에 들고 있지 않는다.)
+ * begin -> row ... -> end 순서로 호출된다. 중간에 flush 를 불러서 그때까지 쓴 행을 내보낼 수 있다.
+ */
+public interface ExportSink {
+
+    void begin(List<String> columns) throws IOException;
+
+    void row(Object[] values) throws IOException;
+
+    // 지금까지 쓴 행을 채널로 내보낸다. 파일 채널이면 디스크에 쓰일 때까지 기다린다. (FileChannel.force)
+    void flush() throws IOException;
+
+    // 버퍼에 남은 내용을 내보낸다. 채널은 닫지 않는다. (채널을 연 쪽이 닫는다.)
+    void end() throws IOException;
+}
@@ -0,0 +1,96 @@
+package hello.springtx.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// 한 줄에 JSON 객체 하나 (newline-delimited JSON), 숫자와 boolean 외의 값은 문자열로 쓴다.
+public class NdjsonExportSink implements ExportSink {
+
+    private final WritableByteChannel channel;
+    private final Writer writer;
+    private String[] keys;
+
+    public NdjsonExportSink(WritableByteChannel channel) {
+        this.channel = channel;
+        this.writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void begin(List<String> columns) {
+        // 키는 행마다 다시 이스케이프하지 않도록 한 번만 만든다.
+        keys = new String[columns.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = quote(columns.get(i)) + ':';
+        }
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(keys[i]);
+            Object value = values[i];
+            if (value == null) {
+                writer.write("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                writer.write(value.toString());
+            } else {
+                writer.write(quote(value.toString()));
+            }
+        }
+        writer.write("}\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+        if (channel instanceof FileChannel) {
+            ((FileChannel) channel).force(false);
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        writer.flush();
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
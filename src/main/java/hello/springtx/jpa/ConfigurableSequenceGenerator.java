@@ -0,0 +1,32 @@
+package hello.springtx.jpa;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 엔티티마다 시퀀스 할당 크기(increment_size)를 설정 파일에서 바꿀 수 있는 시퀀스 생성기
+ * spring.jpa.properties.hello.id.[시퀀스 이름].increment_size=100
+ * 설정이 없으면 엔티티의 @GenericGenerator 파라미터 값을 그대로 사용한다.
+ */
+public class ConfigurableSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String INCREMENT_SIZE_PREFIX = "hello.id.";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        String sequenceName = params.getProperty(SEQUENCE_PARAM);
+        Object incrementSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .get(INCREMENT_SIZE_PREFIX + sequenceName + "." + INCREMENT_PARAM);
+
+        if (incrementSize != null) {
+            params.setProperty(INCREMENT_PARAM, incrementSize.toString());
+        }
+        super.configure(type, params, serviceRegistry);
+    }
+}
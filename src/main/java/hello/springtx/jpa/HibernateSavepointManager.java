@@ -0,0 +1,179 @@
+package hello.springtx.jpa;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.UnexpectedRollbackException;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate 세션 위의 JDBC 세이브포인트
+ * DB 만 세이브포인트로 되돌리면 영속성 컨텍스트에는 롤백된 엔티티와 아직 내보내지 않은 insert/update 가 남아서
+ * 바깥 트랜잭션이 커밋할 때 다시 DB 에 들어간다. 그래서
+ * 1. 세이브포인트를 만들기 전에 flush 하고, 그때 관리 중인 엔티티의 상태를 기억한다.
+ * 2. 롤백하면 남은 작업(ActionQueue)을 버리고, 세이브포인트 뒤에 들어온 엔티티는 detach, 바뀐 엔티티는 DB 에서 다시 읽는다.
+ * 3. 세이브포인트를 해제(중첩 트랜잭션 커밋)할 때 flush 한다. 여기서 실패하면 세이브포인트로 되돌리고 예외를 던진다.
+ *    (이때는 스프링이 바깥 트랜잭션을 rollback-only 로 만드니, 실패를 매서드 안에서 잡으려면 중첩 매서드 안에서 flush 한다.)
+ * 중첩 매서드 안의 flush 는 em.flush() 대신 SavepointFlush.flush(em) 을 쓴다. em.flush() 가 실패하면 Hibernate 가
+ * 트랜잭션 전체를 rollback-only 로 표시하고, 세이브포인트로 롤백해도 지워지지 않는다. 이때는 롤백 후 바로 예외를 던진다.
+ * 컬렉션 상태는 되돌리지 않는다.
+ */
+@Slf4j
+class HibernateSavepointManager implements SavepointManager {
+
+    private final Object transactionData;
+    private final EventSource session;
+    private int savepointCounter;
+
+    HibernateSavepointManager(Object transactionData, EventSource session) {
+        this.transactionData = transactionData;
+        this.session = session;
+    }
+
+    Object getTransactionData() {
+        return transactionData;
+    }
+
+    @Override
+    public Object createSavepoint() {
+        flush();
+        Map<EntityKey, Object[]> loadedStates = new HashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext().reentrantSafeEntityEntries()) {
+            loadedStates.put(entry.getValue().getEntityKey(), entry.getValue().getLoadedState());
+        }
+        try {
+            Savepoint savepoint = session.connection().setSavepoint("SAVEPOINT_" + (++savepointCounter));
+            return new JpaSavepoint(savepoint, loadedStates);
+        } catch (SQLException e) {
+            throw new CannotCreateTransactionException("JDBC 세이브포인트를 만들 수 없습니다.", e);
+        }
+    }
+
+    @Override
+    public void rollbackToSavepoint(Object savepoint) {
+        JpaSavepoint jpaSavepoint = (JpaSavepoint) savepoint;
+        // 세이브포인트 전에 flush 했으니 남은 작업은 모두 중첩 트랜잭션의 것이다.
+        session.getActionQueue().clear();
+        try {
+            session.connection().rollback(jpaSavepoint.savepoint);
+        } catch (SQLException e) {
+            throw new TransactionSystemException("세이브포인트로 롤백할 수 없습니다.", e);
+        }
+        restorePersistenceContext(jpaSavepoint);
+        // 중첩 매서드 안에서 em.flush() 가 실패했다. 바깥 트랜잭션도 커밋할 수 없으니 부분 실패로 넘어가지 않게 알린다.
+        if (session.getTransaction().getRollbackOnly()) {
+            throw new UnexpectedRollbackException("세이브포인트로 롤백했지만 Hibernate 가 트랜잭션 전체를 rollback-only 로 표시했습니다."
+                    + " 중첩 트랜잭션 안에서는 em.flush() 대신 SavepointFlush.flush(em) 을 사용하세요.");
+        }
+    }
+
+    @Override
+    public void releaseSavepoint(Object savepoint) {
+        JpaSavepoint jpaSavepoint = (JpaSavepoint) savepoint;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            rollbackToSavepoint(jpaSavepoint);
+            throw e;
+        }
+        try {
+            session.connection().releaseSavepoint(jpaSavepoint.savepoint);
+        } catch (SQLException e) {
+            // 해제를 지원하지 않는 드라이버도 있다. 트랜잭션이 끝나면 어차피 사라진다. (JdbcTransactionObjectSupport 와 같게)
+            log.debug("세이브포인트를 해제할 수 없습니다. ex={}", e.toString());
+        }
+    }
+
+    private void restorePersistenceContext(JpaSavepoint savepoint) {
+        List<Object> detached = new ArrayList<>();
+        List<Object> refreshed = new ArrayList<>();
+        List<EntityEntry> affected = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext().reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            EntityEntry entityEntry = entry.getValue();
+            if (!savepoint.loadedStates.containsKey(entityEntry.getEntityKey())) {
+                detached.add(entity); // 세이브포인트 뒤에 저장하거나 읽은 엔티티
+                affected.add(entityEntry);
+            } else if (savepoint.loadedStates.get(entityEntry.getEntityKey()) != entityEntry.getLoadedState()
+                    || isDirty(entity, entityEntry)) {
+                refreshed.add(entity); // 세이브포인트 뒤에 바뀐 엔티티, DB 는 세이브포인트 때로 돌아갔다.
+                affected.add(entityEntry);
+            }
+        }
+        detached.forEach(session::evict);
+        refreshed.forEach(session::refresh);
+        evictSecondLevelCache(affected);
+        log.debug("세이브포인트로 롤백 detached={}, refreshed={}", detached.size(), refreshed.size());
+    }
+
+    // 중첩 트랜잭션에서 내보낸 insert/update 는 바깥 트랜잭션이 끝난 뒤 2차 캐시에 들어간다.
+    // 지금, 그리고 트랜잭션이 끝난 뒤에 한 번 더 비운다.
+    private void evictSecondLevelCache(List<EntityEntry> affected) {
+        List<EntityEntry> cached = new ArrayList<>();
+        for (EntityEntry entry : affected) {
+            EntityPersister persister = entry.getPersister();
+            if (persister.canWriteToCache() || persister.hasNaturalIdCache()) {
+                cached.add(entry);
+            }
+        }
+        if (cached.isEmpty()) {
+            return;
+        }
+        evict(cached);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> evict(cached));
+    }
+
+    private void evict(List<EntityEntry> entries) {
+        CacheImplementor cache = session.getFactory().getCache();
+        for (EntityEntry entry : entries) {
+            if (entry.getPersister().canWriteToCache()) {
+                cache.evictEntityData(entry.getEntityName(), entry.getId());
+            }
+            if (entry.getPersister().hasNaturalIdCache()) {
+                cache.evictNaturalIdData(entry.getEntityName());
+            }
+        }
+    }
+
+    private boolean isDirty(Object entity, EntityEntry entry) {
+        Object[] loadedState = entry.getLoadedState();
+        if (loadedState == null) {
+            return false; // 읽기 전용 엔티티
+        }
+        EntityPersister persister = entry.getPersister();
+        return persister.findDirty(persister.getPropertyValues(entity), loadedState, entity, session) != null;
+    }
+
+    private void flush() {
+        SavepointFlush.flush(session);
+    }
+
+    private PersistenceContext persistenceContext() {
+        return session.getPersistenceContext();
+    }
+
+    private static final class JpaSavepoint {
+
+        private final Savepoint savepoint;
+        private final Map<EntityKey, Object[]> loadedStates;
+
+        private JpaSavepoint(Savepoint savepoint, Map<EntityKey, Object[]> loadedStates) {
+            this.savepoint = savepoint;
+            this.loadedStates = loadedStates;
+        }
+    }
+}
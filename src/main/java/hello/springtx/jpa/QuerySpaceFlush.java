@@ -0,0 +1,87 @@
+package hello.springtx.jpa;
+
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.Query;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 쓰기 트랜잭션 안의 조회 쿼리가 필요할 때만 flush 하게 한다.
+ * FlushMode.AUTO 에서 Hibernate 는 JPQL 을 실행할 때마다 영속성 컨텍스트 전체를 변경 감지해서 밀린 쓰기를 만들고,
+ * 쿼리 테이블과 겹칠 때만 내보낸다. 겹치지 않아도 전체 변경 감지는 쿼리마다 한다.
+ * 여기서는 쿼리가 읽는 엔티티 타입만 먼저 본다.
+ * - 그 테이블에 밀린 insert/update/delete 가 없고 (ActionQueue)
+ * - 관리 중인 그 타입 엔티티가 바뀌지 않았으면
+ * 이 쿼리만 FlushModeType.COMMIT 으로 실행한다. 하나라도 걸리면 원래대로 AUTO flush 한다. (Hibernate 는 일부만 flush 하지 못한다.)
+ */
+public final class QuerySpaceFlush {
+
+    private QuerySpaceFlush() {
+    }
+
+    // entityTypes 는 쿼리가 읽는 엔티티 전부 (join 한 엔티티 포함)
+    public static <Q extends Query> Q apply(EntityManager em, Q query, Class<?>... entityTypes) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        // readOnly 트랜잭션은 이미 MANUAL 이다.
+        if (session.getHibernateFlushMode() == FlushMode.AUTO && isClean(session, entityTypes)) {
+            query.setFlushMode(FlushModeType.COMMIT);
+        }
+        return query;
+    }
+
+    private static boolean isClean(SessionImplementor session, Class<?>... entityTypes) {
+        MetamodelImplementor metamodel = session.getFactory().getMetamodel();
+        Set<Serializable> querySpaces = new HashSet<>();
+        for (Class<?> entityType : entityTypes) {
+            Collections.addAll(querySpaces, metamodel.entityPersister(entityType).getQuerySpaces());
+        }
+        if (session.getActionQueue().areTablesToBeUpdated(querySpaces)) {
+            return false;
+        }
+
+        Map<EntityPersister, Boolean> relevant = new IdentityHashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            EntityEntry entityEntry = entry.getValue();
+            EntityPersister persister = entityEntry.getPersister();
+            if (!relevant.computeIfAbsent(persister, p -> overlaps(p, querySpaces))) {
+                continue;
+            }
+            // 컬렉션 변경은 여기서 보지 않으니 AUTO 에 맡긴다.
+            Status status = entityEntry.getStatus();
+            if ((status != Status.MANAGED && status != Status.READ_ONLY) || persister.hasCollections()) {
+                return false;
+            }
+            Object[] loadedState = entityEntry.getLoadedState();
+            if (loadedState != null && persister.findDirty(persister.getPropertyValues(entry.getKey()),
+                    loadedState, entry.getKey(), session) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean overlaps(EntityPersister persister, Set<Serializable> querySpaces) {
+        for (Serializable space : persister.getQuerySpaces()) {
+            if (querySpaces.contains(space)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
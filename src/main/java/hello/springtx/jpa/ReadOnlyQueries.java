@@ -0,0 +1,32 @@
+package hello.springtx.jpa;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.TypedQuery;
+
+/**
+ * readOnly 트랜잭션에서 조회 쿼리에 읽기 전용 힌트를 준다.
+ * readOnly 트랜잭션을 시작하면 HibernateJpaDialect 가 세션을 FlushMode.MANUAL, defaultReadOnly 로 바꾼다.
+ * 여기서는 쿼리 단위로도 읽기 전용(변경 감지용 스냅샷을 만들지 않는다)과 JDBC fetch size 를 지정한다.
+ * 쓰기 트랜잭션에 참여한 조회는 조회한 엔티티를 수정할 수 있어야 하므로 건드리지 않는다.
+ */
+public final class ReadOnlyQueries {
+
+    public static final int FETCH_SIZE = 100;
+
+    private ReadOnlyQueries() {
+    }
+
+    public static <T> TypedQuery<T> apply(TypedQuery<T> query) {
+        return apply(query, FETCH_SIZE);
+    }
+
+    public static <T> TypedQuery<T> apply(TypedQuery<T> query, int fetchSize) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setHint(QueryHints.HINT_READONLY, true);
+            query.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize);
+        }
+        return query;
+    }
+}
@@ -0,0 +1,40 @@
+package hello.springtx.jpa;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 중첩(NESTED) 트랜잭션 안에서 쓰는 flush
+ * em.flush() 가 실패하면 Hibernate 의 ExceptionConverter 가 리소스 로컬 트랜잭션 전체를 rollback-only 로 표시한다.
+ * 이 표시는 세이브포인트로 롤백해도 지워지지 않아서 바깥 트랜잭션도 커밋할 수 없게 된다.
+ * 여기서는 flush 이벤트를 직접 실행해서 그 표시 없이 예외만 던진다. 예외는 스프링 DataAccessException 으로 바꾼다.
+ */
+public final class SavepointFlush {
+
+    private static final HibernateJpaDialect TRANSLATOR = new HibernateJpaDialect();
+
+    private SavepointFlush() {
+    }
+
+    public static void flush(EntityManager em) {
+        flush(em.unwrap(EventSource.class));
+    }
+
+    static void flush(EventSource session) {
+        try {
+            session.getFactory().getServiceRegistry().getService(EventListenerRegistry.class)
+                    .getEventListenerGroup(EventType.FLUSH)
+                    .fireEventOnEachListener(new FlushEvent(session), FlushEventListener::onFlush);
+        } catch (RuntimeException e) {
+            DataAccessException translated = TRANSLATOR.translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+}
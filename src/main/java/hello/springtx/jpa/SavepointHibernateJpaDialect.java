@@ -0,0 +1,31 @@
+package hello.springtx.jpa;
+
+import org.hibernate.event.spi.EventSource;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * JPA 에서 NESTED 전파를 쓸 수 있게 하는 HibernateJpaDialect
+ * 기본 HibernateJpaDialect 는 세이브포인트를 지원하지 않아서 NESTED 를 쓰면 NestedTransactionNotSupportedException 이 난다.
+ * 트랜잭션 데이터를 SavepointManager(HibernateSavepointManager) 로 감싸면 JpaTransactionManager 가 세이브포인트로 중첩 트랜잭션을 연다.
+ */
+public class SavepointHibernateJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        return new HibernateSavepointManager(transactionData, entityManager.unwrap(EventSource.class));
+    }
+
+    @Override
+    public void cleanupTransaction(@Nullable Object transactionData) {
+        if (transactionData instanceof HibernateSavepointManager) {
+            transactionData = ((HibernateSavepointManager) transactionData).getTransactionData();
+        }
+        super.cleanupTransaction(transactionData);
+    }
+}
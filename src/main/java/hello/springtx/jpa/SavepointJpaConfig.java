@@ -0,0 +1,28 @@
+package hello.springtx.jpa;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+// jpa.savepoint.enabled=true 면 @Transactional(propagation = NESTED) 를 JDBC 세이브포인트로 처리한다.
+// JpaTransactionManager 는 EntityManagerFactory 의 JpaDialect 를 따라가므로 팩토리 빈에만 넣으면 된다.
+@Configuration
+@ConditionalOnProperty(prefix = "jpa.savepoint", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SavepointJpaConfig {
+
+    @Bean
+    public static BeanPostProcessor savepointJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // afterPropertiesSet 전에 넣어야 JpaVendorAdapter 의 기본 dialect 대신 쓰인다.
+                if (bean instanceof AbstractEntityManagerFactoryBean) {
+                    ((AbstractEntityManagerFactoryBean) bean).setJpaDialect(new SavepointHibernateJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
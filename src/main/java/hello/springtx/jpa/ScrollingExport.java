@@ -0,0 +1,62 @@
+package hello.springtx.jpa;
+
+import hello.springtx.export.ExportColumns;
+import hello.springtx.export.ExportSink;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * 조회 결과를 getResultList() 로 한 번에 만들지 않고 커서로 한 행씩 읽어서 내보낸다.
+ * - FORWARD_ONLY 커서 + JDBC fetch size, 드라이버가 fetch size 만큼씩 가져온다.
+ * - 읽기 전용 + 2차 캐시 무시, 스냅샷과 캐시 적재가 없다.
+ * - clearInterval 행마다 영속성 컨텍스트를 비워서 힙 사용량이 행 수와 상관없이 일정하다.
+ * readOnly 트랜잭션 안에서 호출해야 한다. (커서는 트랜잭션이 끝나면 닫힌다.)
+ */
+public final class ScrollingExport {
+
+    public static final int FETCH_SIZE = 1_000;
+    public static final int CLEAR_INTERVAL = 1_000;
+
+    private ScrollingExport() {
+    }
+
+    public static <T> long export(EntityManager em, String queryName, Map<String, ?> parameters, Class<T> type,
+                                  ExportColumns<T> columns, ExportSink sink) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("내보내기는 readOnly 트랜잭션 안에서 해야 합니다.");
+        }
+        Session session = em.unwrap(Session.class);
+        Query<T> query = session.createNamedQuery(queryName, type)
+                .setReadOnly(true)
+                .setFetchSize(FETCH_SIZE)
+                .setCacheMode(CacheMode.IGNORE);
+        parameters.forEach(query::setParameter);
+
+        long count = 0;
+        Object[] buffer = new Object[columns.size()];
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            sink.begin(columns.names());
+            while (results.next()) {
+                @SuppressWarnings("unchecked")
+                T entity = (T) results.get(0);
+                sink.row(columns.values(entity, buffer));
+                if (++count % CLEAR_INTERVAL == 0) {
+                    session.clear();
+                }
+            }
+            sink.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("내보내기 실패", e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,64 @@
+package hello.springtx.order;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * 재시도해도 주문이 한 번만 저장되는 주문 제출
+ * 1. 캐시에 같은 키의 결과가 있으면 트랜잭션 없이 그대로 돌려준다.
+ * 2. 없으면 주문한다. 다른 요청이 먼저 저장했다면 유니크 제약조건 위반이 나고, 저장된 주문을 읽어서 돌려준다.
+ * 시스템 예외로 롤백된 주문은 저장되지 않았으니 기억하지 않는다. (다시 제출하면 다시 주문한다.)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotentOrderService {
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderIdempotencyCache cache;
+
+    public OrderResult submit(Order order) {
+        String key = order.getIdempotencyKey();
+        if (key == null) {
+            return order(order);
+        }
+
+        OrderResult cached = cache.get(key);
+        if (cached != null) {
+            log.info("이미 처리한 주문 idempotencyKey={}, status={}", key, cached.getStatus());
+            return cached;
+        }
+
+        OrderResult result;
+        try {
+            result = order(order);
+        } catch (DataIntegrityViolationException e) {
+            // 캐시를 놓친 재시도, 먼저 저장된 주문의 결과를 돌려준다.
+            order.setId(null);
+            Order existing = orderRepository.findByIdempotencyKey(key).orElseThrow(() -> e);
+            log.info("중복 주문 idempotencyKey={}, orderId={}", key, existing.getId());
+            result = toResult(existing);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    private OrderResult order(Order order) {
+        try {
+            orderService.order(order);
+            return OrderResult.completed(order);
+        } catch (NotEnoughMoneyException e) {
+            // 잔고 부족은 "대기"로 커밋되었다.
+            return OrderResult.pending(order, e.getMessage());
+        }
+    }
+
+    private static OrderResult toResult(Order order) {
+        return order.getPayStatus() == PayStatus.WAITING
+                ? OrderResult.pending(order, "잔고가 부족합니다.")
+                : OrderResult.completed(order);
+    }
+}
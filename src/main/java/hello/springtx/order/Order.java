@@ -2,24 +2,68 @@ package hello.springtx.order;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.time.Instant;
 
 
 @Entity
-@Table(name = "orders") // 테이블 매핑
+@Table(name = "orders", // 테이블 매핑
+        uniqueConstraints = @UniqueConstraint(name = "uk_orders_idempotency_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_orders_pay_status_id", columnList = "pay_status, id")) // 대기 주문을 id 순서로 범위 조회
+// JPQL 은 이름 있는 쿼리로 두어서 시작할 때 검증하고 실행 계획을 미리 만든다.
+@NamedQuery(name = Order.EXPORT_ALL, query = "select o from Order o order by o.id")
+@NamedQuery(name = Order.EXPORT_BY_PAY_STATUS, query = "select o from Order o where o.payStatus = :payStatus order by o.id")
+@NamedQuery(name = Order.FIND_CLAIMABLE_IDS, query = "select o.id from Order o where o.payStatus = :waiting and o.id > :afterId"
+        + " and (o.leaseExpiresAt is null or o.leaseExpiresAt < :now) order by o.id")
+@NamedQuery(name = Order.CLAIM, query = "update Order o set o.claimedBy = :token, o.leaseExpiresAt = :expiresAt"
+        + " where o.id in :ids and o.payStatus = :waiting and (o.leaseExpiresAt is null or o.leaseExpiresAt < :now)")
+@NamedQuery(name = Order.FIND_CLAIMED_IDS, query = "select o.id from Order o where o.id in :ids and o.claimedBy = :token order by o.id")
 @Getter
 @Setter
 public class Order {
 
+    public static final String EXPORT_ALL = "Order.exportAll";
+    public static final String EXPORT_BY_PAY_STATUS = "Order.exportByPayStatus";
+    public static final String FIND_CLAIMABLE_IDS = "Order.findClaimableIds";
+    public static final String CLAIM = "Order.claim";
+    public static final String FIND_CLAIMED_IDS = "Order.findClaimedIds";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "order_seq_generator")
+    @GenericGenerator(name = "order_seq_generator", strategy = "hello.springtx.jpa.ConfigurableSequenceGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")
+    }) // 시퀀스를 한 번 호출해서 id를 50개씩 미리 받아온다. (insert 배치 가능)
     private Long id;
 
     private String username; // 정상, 예외, 잔고부족
 
-    private String payStatus; // 대기, 완료
+    @Convert(converter = PayStatusConverter.class)
+    @Column(name = "pay_status", length = 1)
+    private PayStatus payStatus; // W(대기), C(완료)
+
+    // 클라이언트가 재시도해도 같은 값을 보내는 주문 키, 같은 키로는 한 번만 저장된다.
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    // 대기 주문 재처리 리스, 선점한 워커와 만료 시각 (PendingOrderReconciler)
+    // 만료 시각이 지나면 다른 워커가 다시 선점할 수 있다. 선점 없이 만료 시각만 있으면 그때까지 재처리를 미룬다.
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
 }
@@ -0,0 +1,20 @@
+package hello.springtx.order;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "order.batch")
+public class OrderBatchProperties {
+
+    // 이 개수만큼 처리하고 커밋한다. (청크 하나 = 트랜잭션 하나)
+    private int chunkSize = 1000;
+
+    // 이 개수마다 flush/clear 해서 영속성 컨텍스트가 커지지 않게 한다.
+    // hibernate.jdbc.batch_size 와 맞춰두면 flush 한 번이 배치 insert 한 번이 된다.
+    private int flushSize = 50;
+}
@@ -0,0 +1,55 @@
+package hello.springtx.order;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// 대량 주문 결과 리포트, 입력 순서대로 주문별 결과를 담는다.
+public class OrderBatchReport {
+
+    private final List<OrderResult> results = new ArrayList<>();
+    private final Map<OrderResult.Status, Integer> counts = new EnumMap<>(OrderResult.Status.class);
+
+    @Getter
+    private int committedChunks;
+
+    @Getter
+    private int rolledBackChunks;
+
+    void addCommittedChunk(List<OrderResult> chunkResults) {
+        committedChunks++;
+        chunkResults.forEach(this::add);
+    }
+
+    void addRolledBackChunk(List<OrderResult> chunkResults) {
+        rolledBackChunks++;
+        chunkResults.forEach(this::add);
+    }
+
+    private void add(OrderResult result) {
+        results.add(result);
+        counts.merge(result.getStatus(), 1, Integer::sum);
+    }
+
+    public List<OrderResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    public int count(OrderResult.Status status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBatchReport{size=" + size() + ", counts=" + counts
+                + ", committedChunks=" + committedChunks + ", rolledBackChunks=" + rolledBackChunks + "}";
+    }
+}
@@ -0,0 +1,67 @@
+package hello.springtx.order;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 최근 주문 키와 그 결과를 기억하는 LRU + TTL 캐시
+ * 캐시는 서버마다 따로라서 놓칠 수 있다. 놓치면 주문 테이블의 유니크 제약조건이 중복을 막는다.
+ */
+@Component
+public class OrderIdempotencyCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public OrderIdempotencyCache(OrderIdempotencyProperties properties) {
+        this.maxSize = properties.getMaxSize();
+        this.ttlNanos = properties.getTtl().toNanos();
+        // accessOrder = true, 조회할 때마다 맨 뒤로 보내서 오래 안 쓴 키가 앞에 남는다.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > OrderIdempotencyCache.this.maxSize;
+            }
+        };
+    }
+
+    @Nullable
+    public synchronized OrderResult get(String idempotencyKey) {
+        Entry entry = entries.get(idempotencyKey);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedNanos > ttlNanos) {
+            entries.remove(idempotencyKey);
+            return null;
+        }
+        return entry.result;
+    }
+
+    public synchronized void put(String idempotencyKey, OrderResult result) {
+        entries.put(idempotencyKey, new Entry(result, System.nanoTime()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+
+        private final OrderResult result;
+        private final long storedNanos;
+
+        Entry(OrderResult result, long storedNanos) {
+            this.result = result;
+            this.storedNanos = storedNanos;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package hello.springtx.order;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "order.idempotency")
+public class OrderIdempotencyProperties {
+
+    // 최근 주문 키를 이 개수만큼 기억한다. 넘치면 가장 오래 안 쓴 키부터 버린다. (LRU)
+    private int maxSize = 10_000;
+
+    // 이 시간이 지난 키는 캐시에서 버리고 DB(유니크 제약조건)로 확인한다.
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -1,6 +1,18 @@
 package hello.springtx.order;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface OrderRepository extends JpaRepository<Order,Long> {
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order,Long>, OrderRepositoryCustom {
+
+    @Transactional(readOnly = true)
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
+
+    // 상태별 주문을 id 순서로 afterId 다음부터 조회, (pay_status, id) 인덱스 범위 스캔
+    @Transactional(readOnly = true)
+    List<Order> findByPayStatusAndIdGreaterThanOrderByIdAsc(PayStatus payStatus, Long afterId, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package hello.springtx.order;
+
+import hello.springtx.export.ExportSink;
+
+public interface OrderRepositoryCustom {
+
+    // 주문 전체를 id 순서로 내보낸다.
+    long export(ExportSink sink);
+
+    // 주문 중 한 결제 상태만 id 순서로 내보낸다. (pay_status, id) 인덱스를 탄다.
+    long export(PayStatus payStatus, ExportSink sink);
+}
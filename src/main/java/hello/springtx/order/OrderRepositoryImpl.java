@@ -0,0 +1,37 @@
+package hello.springtx.order;
+
+import hello.springtx.export.ExportColumns;
+import hello.springtx.export.ExportSink;
+import hello.springtx.jpa.ScrollingExport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+
+// 스프링 데이터 JPA 가 OrderRepository 에 합쳐주는 구현 (이름 규칙: 리포지토리 이름 + Impl)
+@RequiredArgsConstructor
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final ExportColumns<Order> EXPORT_COLUMNS = new ExportColumns<Order>()
+            .column("id", Order::getId)
+            .column("username", Order::getUsername)
+            .column("payStatus", order -> order.getPayStatus() != null ? order.getPayStatus().name() : null)
+            .column("idempotencyKey", Order::getIdempotencyKey);
+
+    private final EntityManager em;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(ExportSink sink) {
+        return ScrollingExport.export(em, Order.EXPORT_ALL, Collections.emptyMap(),
+                Order.class, EXPORT_COLUMNS, sink);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(PayStatus payStatus, ExportSink sink) {
+        return ScrollingExport.export(em, Order.EXPORT_BY_PAY_STATUS,
+                Collections.singletonMap("payStatus", payStatus), Order.class, EXPORT_COLUMNS, sink);
+    }
+}
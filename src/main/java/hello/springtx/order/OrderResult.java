@@ -0,0 +1,38 @@
+package hello.springtx.order;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 주문 한 건의 처리 결과 (대량 주문, 중복 제출 방지)
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrderResult {
+
+    public enum Status {
+        COMPLETED,   // 정상 승인, 커밋
+        PENDING,     // 잔고 부족, "대기"로 커밋
+        FAILED,      // 시스템 예외를 낸 주문, 청크 롤백
+        ROLLED_BACK  // 같은 청크의 다른 주문이 실패해서 함께 롤백
+    }
+
+    private final Order order;
+    private final Status status;
+    private final String message;
+
+    public static OrderResult completed(Order order) {
+        return new OrderResult(order, Status.COMPLETED, null);
+    }
+
+    public static OrderResult pending(Order order, String message) {
+        return new OrderResult(order, Status.PENDING, message);
+    }
+
+    public static OrderResult failed(Order order, String message) {
+        return new OrderResult(order, Status.FAILED, message);
+    }
+
+    public static OrderResult rolledBack(Order order, String message) {
+        return new OrderResult(order, Status.ROLLED_BACK, message);
+    }
+}
@@ -1,10 +1,21 @@
 package hello.springtx.order;
 
 
+import hello.springtx.tx.retry.RetryableTransaction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -13,26 +24,139 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
 
+    private final EntityManager em;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final OrderBatchProperties batchProperties;
+
 
     // Jpa는 커밋 시점에 Order 데이터 디비에 반영한다.
+    // 락 타임아웃 같은 일시적인 실패는 새 트랜잭션으로 다시 실행한다. (잔고 부족 같은 체크 예외는 재시도하지 않는다.)
+    // 롤백된 시도가 채운 order 의 id 는 재시도 전에 비운다. (RetryableTransactionInterceptor)
+    @RetryableTransaction
     @Transactional
     public void order(Order order) throws NotEnoughMoneyException {
         log.info("order 호출");
         orderRepository.save(order);
 
         log.info("결제 프로세스 진입");
+        pay(order);
+        log.info("결제 프로세스 완료");
+    }
+
+    // 대량 주문, chunkSize 개씩 묶어서 청크마다 트랜잭션 하나로 커밋한다.
+    // 시스템 예외는 그 청크만 롤백하고 다음 청크를 계속 처리한다.
+    // 잔고 부족은 "대기"로 저장하고 계속 진행한다. 예외 대신 주문별 결과를 돌려준다.
+    public OrderBatchReport orderAll(List<Order> orders) {
+        return orderAll(orders.iterator(), batchProperties.getChunkSize());
+    }
+
+    // 스트리밍 버전, 청크 하나만큼만 메모리에 들고 있는다.
+    public OrderBatchReport orderAll(Iterator<Order> orders, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다.");
+        }
+        int flushSize = batchProperties.getFlushSize();
+        if (flushSize <= 0) {
+            throw new IllegalArgumentException("order.batch.flush-size 는 1 이상이어야 합니다.");
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        OrderBatchReport report = new OrderBatchReport();
+
+        List<Order> chunk = new ArrayList<>(chunkSize);
+        while (orders.hasNext()) {
+            chunk.add(orders.next());
+            if (chunk.size() == chunkSize || !orders.hasNext()) {
+                orderChunk(template, chunk, flushSize, report);
+                chunk.clear();
+            }
+        }
+        log.info("대량 주문 완료 {}", report);
+        return report;
+    }
+
+    private void orderChunk(TransactionTemplate template, List<Order> chunk, int flushSize, OrderBatchReport report) {
+        List<OrderResult> results = new ArrayList<>(chunk.size());
+        // 처리 중인 주문의 위치, 커밋 시점에는 -1
+        AtomicInteger processing = new AtomicInteger(-1);
+        try {
+            template.executeWithoutResult(status -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    processing.set(i);
+                    Order order = chunk.get(i);
+                    orderRepository.save(order);
+                    results.add(payInBatch(order));
+
+                    // 주기적으로 배치 insert를 내보내고 영속성 컨텍스트를 비운다.
+                    if (results.size() % flushSize == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+                processing.set(-1);
+            });
+            report.addCommittedChunk(results);
+        } catch (RuntimeException e) {
+            // 예외를 낸 주문은 FAILED, 나머지는 함께 롤백되었으니 ROLLED_BACK
+            // 중간 flush 에서 실패하면 flush 를 부른 주문이 FAILED, 커밋 시점(flush)에 실패하면 전부 ROLLED_BACK이 된다.
+            log.info("시스템 예외로 청크 롤백 size={}, message={}", chunk.size(), e.getMessage());
+            int failedIndex = processing.get();
+            List<OrderResult> rolledBack = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Order order = chunk.get(i);
+                order.setId(null); // 저장되지 않았으니 id를 비워서 그대로 다시 제출할 수 있게 한다.
+                rolledBack.add(i == failedIndex
+                        ? OrderResult.failed(order, e.getMessage())
+                        : OrderResult.rolledBack(order, e.getMessage()));
+            }
+            report.addRolledBackChunk(rolledBack);
+        }
+    }
+
+    // 대기 주문 결제 재시도, 리스를 가진 워커만 처리한다. 주문 하나에 짧은 트랜잭션 하나
+    @Transactional
+    public PaymentRetryResult retryPayment(Long orderId, String claimToken, Instant retryAt) {
+        // 행 잠금, 다른 인스턴스가 리스가 만료된 주문을 다시 선점(update)하는 것과 겹치지 않는다.
+        Order order = em.find(Order.class, orderId, LockModeType.PESSIMISTIC_WRITE);
+        if (order == null || order.getPayStatus() != PayStatus.WAITING || !claimToken.equals(order.getClaimedBy())) {
+            return PaymentRetryResult.LEASE_LOST;
+        }
+
+        order.setClaimedBy(null);
+        try {
+            pay(order);
+            order.setLeaseExpiresAt(null);
+            return PaymentRetryResult.COMPLETED;
+        } catch (NotEnoughMoneyException e) {
+            // 아직 잔고 부족, retryAt 이 지나야 다시 선점할 수 있다.
+            order.setLeaseExpiresAt(retryAt);
+            return PaymentRetryResult.STILL_WAITING;
+        }
+    }
+
+    private OrderResult payInBatch(Order order) {
+        try {
+            pay(order);
+            return OrderResult.completed(order);
+        } catch (NotEnoughMoneyException e) {
+            // 비즈니스 예외는 롤백하지 않고 "대기" 상태로 커밋한다.
+            return OrderResult.pending(order, e.getMessage());
+        }
+    }
+
+    private void pay(Order order) throws NotEnoughMoneyException {
         if(order.getUsername().equals("예외")){
             log.info("시스템 예외 발생");
             throw new RuntimeException("시스템 예외");
         } else if (order.getUsername().equals("잔고부족")) {
             log.info("잔고 부족 비즈니스 예외 발생");
-            order.setPayStatus("대기");
+            order.setPayStatus(PayStatus.WAITING);
             throw new NotEnoughMoneyException("잔고가 부족합니다.");
         }else{
             // 정상 승인
             log.info("정상 승인");
-            order.setPayStatus("완료");
+            order.setPayStatus(PayStatus.COMPLETED);
         }
-        log.info("결제 프로세스 완료");
     }
 }
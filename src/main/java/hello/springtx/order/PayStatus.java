@@ -0,0 +1,33 @@
+package hello.springtx.order;
+
+// 결제 상태, DB 에는 한 글자 코드로 저장한다. (PayStatusConverter)
+public enum PayStatus {
+
+    WAITING('W', "대기"),   // 잔고 부족, 입금을 기다린다.
+    COMPLETED('C', "완료"); // 정상 승인
+
+    private final char code;
+    private final String description;
+
+    PayStatus(char code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static PayStatus fromCode(char code) {
+        for (PayStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 결제 상태 코드=" + code);
+    }
+}
@@ -0,0 +1,19 @@
+package hello.springtx.order;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+// PayStatus <-> char(1) 코드, 문자열("대기", "완료") 대신 한 바이트로 저장하고 인덱스도 작아진다.
+@Converter
+public class PayStatusConverter implements AttributeConverter<PayStatus, Character> {
+
+    @Override
+    public Character convertToDatabaseColumn(PayStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public PayStatus convertToEntityAttribute(Character code) {
+        return code != null ? PayStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,8 @@
+package hello.springtx.order;
+
+// 대기 주문 결제 재시도 결과
+public enum PaymentRetryResult {
+    COMPLETED,      // 결제 완료
+    STILL_WAITING,  // 아직 잔고 부족, 나중에 다시 시도한다.
+    LEASE_LOST      // 리스가 만료되어 다른 워커가 가져갔거나 이미 처리된 주문
+}
@@ -0,0 +1,132 @@
+package hello.springtx.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * "대기" 주문 결제를 다시 시도한다.
+ * 1. (pay_status, id) 인덱스를 따라 id 순서로 대기 주문을 batchSize 개씩 읽는다. (keyset, offset 없음)
+ * 2. 조건부 update 로 리스(claimedBy, leaseExpiresAt)를 걸어서 선점한다. 다른 인스턴스가 선점한 주문은 건너뛴다.
+ * 3. 선점한 주문을 워커들이 주문 하나에 트랜잭션 하나로 재시도한다. (OrderService.retryPayment)
+ * 처리 중에 인스턴스가 죽으면 리스가 만료된 뒤 다른 인스턴스가 가져간다.
+ */
+@Slf4j
+@Component
+public class PendingOrderReconciler {
+
+    private final OrderService orderService;
+    private final EntityManager em;
+    private final TransactionTemplate template;
+    private final ReconcileProperties properties;
+    private final ExecutorService workers;
+
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    public PendingOrderReconciler(OrderService orderService, EntityManager em,
+                                  PlatformTransactionManager transactionManager, ReconcileProperties properties) {
+        this.orderService = orderService;
+        this.em = em;
+        this.template = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "order-reconcile-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // 지금 재시도할 수 있는 대기 주문을 끝까지 한 번 훑는다.
+    public ReconcileReport reconcile() throws InterruptedException {
+        ReconcileReport report = new ReconcileReport();
+        long start = System.nanoTime();
+
+        long afterId = 0;
+        while (true) {
+            Instant now = Instant.now();
+            List<Long> ids = findClaimable(afterId, now);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+
+            String claimToken = properties.getInstanceId() + "#" + claimSequence.incrementAndGet();
+            List<Long> claimed = claim(ids, claimToken, now);
+            report.page(ids.size(), claimed.size());
+            retryAll(claimed, claimToken, report);
+        }
+
+        report.finish(System.nanoTime() - start);
+        log.info("대기 주문 재처리 완료 {}", report);
+        return report;
+    }
+
+    private List<Long> findClaimable(long afterId, Instant now) {
+        return template.execute(status -> em.createNamedQuery(Order.FIND_CLAIMABLE_IDS, Long.class)
+                .setParameter("waiting", PayStatus.WAITING)
+                .setParameter("afterId", afterId)
+                .setParameter("now", now)
+                .setMaxResults(properties.getBatchSize())
+                .getResultList());
+    }
+
+    // 조건부 update 는 행마다 원자적이다. 동시에 같은 주문을 선점하려 해도 한 쪽만 성공한다.
+    private List<Long> claim(List<Long> ids, String claimToken, Instant now) {
+        return template.execute(status -> {
+            int updated = em.createNamedQuery(Order.CLAIM)
+                    .setParameter("token", claimToken)
+                    .setParameter("expiresAt", now.plus(properties.getLease()))
+                    .setParameter("ids", ids)
+                    .setParameter("waiting", PayStatus.WAITING)
+                    .setParameter("now", now)
+                    .executeUpdate();
+            if (updated == 0) {
+                return Collections.<Long>emptyList();
+            }
+            return em.createNamedQuery(Order.FIND_CLAIMED_IDS, Long.class)
+                    .setParameter("ids", ids)
+                    .setParameter("token", claimToken)
+                    .getResultList();
+        });
+    }
+
+    private void retryAll(List<Long> claimed, String claimToken, ReconcileReport report) throws InterruptedException {
+        Instant retryAt = Instant.now().plus(properties.getRetryDelay());
+        List<Callable<PaymentRetryResult>> tasks = new ArrayList<>(claimed.size());
+        for (Long orderId : claimed) {
+            tasks.add(() -> orderService.retryPayment(orderId, claimToken, retryAt));
+        }
+
+        List<Future<PaymentRetryResult>> results = workers.invokeAll(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                report.record(results.get(i).get());
+            } catch (ExecutionException e) {
+                // 실패한 주문은 리스가 만료된 뒤 다시 시도된다.
+                report.failed();
+                log.warn("대기 주문 재처리 실패 orderId={}, ex={}", claimed.get(i), e.getCause().toString());
+            }
+        }
+    }
+}
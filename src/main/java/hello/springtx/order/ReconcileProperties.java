@@ -0,0 +1,31 @@
+package hello.springtx.order;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "order.reconcile")
+public class ReconcileProperties {
+
+    // 결제를 재시도하는 워커 스레드 수
+    private int workers = 4;
+
+    // 한 번에 읽고 선점하는 대기 주문 수 (keyset 페이지 크기)
+    private int batchSize = 500;
+
+    // 선점한 주문을 처리할 시간, 지나면 다른 워커(인스턴스)가 다시 선점할 수 있다.
+    private Duration lease = Duration.ofSeconds(30);
+
+    // 재시도해도 잔고가 부족한 주문은 이 시간이 지난 뒤에 다시 시도한다.
+    private Duration retryDelay = Duration.ofMinutes(5);
+
+    // 리스에 남기는 인스턴스 이름, 인스턴스마다 달라야 한다.
+    private String instanceId = UUID.randomUUID().toString().substring(0, 8);
+}
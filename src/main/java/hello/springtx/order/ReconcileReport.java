@@ -0,0 +1,71 @@
+package hello.springtx.order;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// 대기 주문 재처리 한 번의 결과
+public class ReconcileReport {
+
+    @Getter private long scanned;    // keyset 으로 읽은 대기 주문
+    @Getter private long claimed;    // 그중 선점에 성공한 주문 (나머지는 다른 인스턴스가 선점)
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder stillWaiting = new LongAdder();
+    private final LongAdder leaseLost = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    @Getter private long elapsedNanos;
+
+    void page(int scanned, int claimed) {
+        this.scanned += scanned;
+        this.claimed += claimed;
+    }
+
+    void record(PaymentRetryResult result) {
+        switch (result) {
+            case COMPLETED:
+                completed.increment();
+                break;
+            case STILL_WAITING:
+                stillWaiting.increment();
+                break;
+            default:
+                leaseLost.increment();
+        }
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getStillWaitingCount() {
+        return stillWaiting.sum();
+    }
+
+    public long getLeaseLostCount() {
+        return leaseLost.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    // 초당 처리한(완료 + 재대기) 주문 수
+    public double getDrainRate() {
+        return elapsedNanos == 0 ? 0 : (getCompletedCount() + getStillWaitingCount()) / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{scanned=%d, claimed=%d, completed=%d, stillWaiting=%d, leaseLost=%d, failed=%d, elapsed=%dms, drainRate=%.1f/s}",
+                scanned, claimed, getCompletedCount(), getStillWaitingCount(), getLeaseLostCount(), getFailedCount(),
+                elapsedNanos / 1_000_000, getDrainRate());
+    }
+}
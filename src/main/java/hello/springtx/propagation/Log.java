@@ -4,27 +4,64 @@ package hello.springtx.propagation;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedQuery;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+import java.time.Instant;
 
 @Entity
+@Table(indexes = @Index(name = "idx_log_created_at", columnList = "created_at")) // 보관 기간이 지난 로그를 범위로 찾는다.
+// JPQL 은 이름 있는 쿼리로 두어서 시작할 때 검증하고 실행 계획을 미리 만든다. (첫 요청에서 파싱하지 않는다.)
+@NamedQuery(name = Log.FIND_BY_MESSAGE, query = "select l from Log l where l.message = :message")
+@NamedQuery(name = Log.EXPORT_ALL, query = "select l from Log l order by l.id")
+@NamedQuery(name = Log.FIND_IDS_CREATED_BEFORE, query = "select l.id from Log l where l.createdAt < :cutoff order by l.createdAt")
+@NamedQuery(name = Log.FIND_CREATED_BEFORE, query = "select l from Log l where l.createdAt < :cutoff order by l.createdAt")
+@NamedQuery(name = Log.DELETE_BY_IDS, query = "delete from Log l where l.id in :ids")
 @Getter
 @Setter
 @NoArgsConstructor
 public class Log {
 
+    public static final String FIND_BY_MESSAGE = "Log.findByMessage";
+    public static final String EXPORT_ALL = "Log.exportAll";
+    public static final String FIND_IDS_CREATED_BEFORE = "Log.findIdsCreatedBefore";
+    public static final String FIND_CREATED_BEFORE = "Log.findCreatedBefore";
+    public static final String DELETE_BY_IDS = "Log.deleteByIds";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "log_seq_generator")
+    @GenericGenerator(name = "log_seq_generator", strategy = "hello.springtx.jpa.ConfigurableSequenceGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "log_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")
+    }) // 시퀀스를 한 번 호출해서 id를 50개씩 미리 받아온다. (insert 배치 가능)
     private Long id;
 
     @Column
     private String message;
 
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
 
     public Log(String message) {
         this.message = message;
+        this.createdAt = Instant.now(); // 저장이 늦어져도(write-behind) 로그가 생긴 시각을 남긴다.
+    }
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
     }
 }
@@ -1,6 +1,12 @@
 package hello.springtx.propagation;
 
 
+import hello.springtx.export.ExportColumns;
+import hello.springtx.export.ExportSink;
+import hello.springtx.jpa.QuerySpaceFlush;
+import hello.springtx.jpa.ReadOnlyQueries;
+import hello.springtx.jpa.SavepointFlush;
+import hello.springtx.jpa.ScrollingExport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
@@ -9,6 +15,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.Entity;
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import java.util.Collections;
 import java.util.Optional;
 
 @Slf4j
@@ -16,6 +24,11 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class LogRepository {
 
+    static final ExportColumns<Log> EXPORT_COLUMNS = new ExportColumns<Log>()
+            .column("id", Log::getId)
+            .column("message", Log::getMessage)
+            .column("createdAt", Log::getCreatedAt);
+
     private final EntityManager em;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -30,12 +43,48 @@ public class LogRepository {
         }
     }
 
+    // REQUIRES_NEW 대신 세이브포인트, 커넥션 하나와 커밋 한 번으로 바깥 트랜잭션 안에서 이 부분만 롤백한다.
+    // 여기서 flush 해서 insert 실패도 이 매서드 안에서 롤백되게 한다. (jpa.savepoint.enabled 필요)
+    // em.flush() 는 실패하면 바깥 트랜잭션까지 rollback-only 로 만드니 SavepointFlush 를 쓴다.
+    @Transactional(propagation = Propagation.NESTED)
+    public void saveNested(Log logMessage){
+        log.info("로그 저장 (세이브포인트)");
+        em.persist(logMessage);
+
+        if(logMessage.getMessage().contains("로그예외")){
+            log.info("log 저장시 예외 발생");
+            throw new RuntimeException("예외 발생");
+            // 세이브포인트까지만 롤백된다.
+        }
+        SavepointFlush.flush(em);
+    }
+
+    // 쓰기 트랜잭션에 참여하면 밀린 로그 쓰기가 있을 때만 flush 한다. (QuerySpaceFlush)
+    @Transactional(readOnly = true) // 라우팅이 켜져 있으면 replica 에서 읽는다.
     public Optional<Log> find(String message){
-        return em.createQuery("select l from Log l where l.message = :message",Log.class)
+        return ReadOnlyQueries.apply(QuerySpaceFlush.apply(em, em.createNamedQuery(Log.FIND_BY_MESSAGE, Log.class), Log.class))
                 .setParameter("message",message)
+                .setMaxResults(1) // 하나만 필요하다. 같은 메시지의 로그를 전부 읽지 않는다.
                 .getResultList().stream().findAny();
         // JPQL
 
 
     }
+
+    // flush 없이 조회한다. 아직 flush 하지 않은 로그는 보이지 않으니, 찾을 로그를 이 트랜잭션에서 저장하지 않았을 때만 쓴다.
+    @Transactional(readOnly = true)
+    public Optional<Log> findWithoutFlush(String message){
+        return ReadOnlyQueries.apply(em.createNamedQuery(Log.FIND_BY_MESSAGE, Log.class))
+                .setFlushMode(FlushModeType.COMMIT)
+                .setParameter("message",message)
+                .setMaxResults(1)
+                .getResultList().stream().findAny();
+    }
+
+    // 로그 전체를 id 순서로 내보낸다. 커서로 한 행씩 읽으니 행 수와 상관없이 힙 사용량이 일정하다.
+    @Transactional(readOnly = true)
+    public long export(ExportSink sink){
+        return ScrollingExport.export(em, Log.EXPORT_ALL, Collections.emptyMap(),
+                Log.class, EXPORT_COLUMNS, sink);
+    }
 }
@@ -0,0 +1,30 @@
+package hello.springtx.propagation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "log.retention")
+public class LogRetentionProperties {
+
+    // 이 기간보다 오래된 로그를 지운다.
+    private Duration maxAge = Duration.ofDays(30);
+
+    // 한 트랜잭션에서 지우는 최대 로그 수, 작을수록 락을 짧게 잡는다.
+    private int chunkSize = 1_000;
+
+    // 청크 사이에 쉬는 시간, 가입 트랜잭션과 디비를 나눠 쓴다.
+    private Duration pause = Duration.ofMillis(100);
+
+    // 설정하면 지우기 전에 이 디렉터리에 NDJSON 으로 보관한다.
+    private String archiveDirectory;
+
+    // 주기 실행 cron, "-" 면 주기 실행하지 않는다.
+    private String cron = "-";
+}
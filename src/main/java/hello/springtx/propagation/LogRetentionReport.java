@@ -0,0 +1,29 @@
+package hello.springtx.propagation;
+
+import lombok.Getter;
+
+// 로그 정리 한 번의 결과
+@Getter
+public class LogRetentionReport {
+
+    private long deleted;
+    private long archived;
+    private int chunks;
+    private long elapsedNanos;
+
+    void chunk(int deleted, int archived) {
+        this.deleted += deleted;
+        this.archived += archived;
+        this.chunks++;
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "{deleted=" + deleted + ", archived=" + archived + ", chunks=" + chunks
+                + ", elapsed=" + elapsedNanos / 1_000_000 + "ms}";
+    }
+}
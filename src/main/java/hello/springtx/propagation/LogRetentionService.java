@@ -0,0 +1,132 @@
+package hello.springtx.propagation;
+
+import hello.springtx.export.ExportSink;
+import hello.springtx.export.NdjsonExportSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 보관 기간이 지난 로그를 지운다.
+ * 한 번에 전부 지우지 않고 chunkSize 개씩 각자 짧은 트랜잭션으로 지운다. (긴 락, 큰 undo 없이)
+ * 청크 사이에는 pause 만큼 쉬어서 가입 트랜잭션이 계속 돌 수 있게 한다.
+ */
+@Slf4j
+@Service
+public class LogRetentionService {
+
+    private final EntityManager em;
+    private final TransactionTemplate template;
+    private final LogRetentionProperties properties;
+
+    public LogRetentionService(EntityManager em, PlatformTransactionManager transactionManager, LogRetentionProperties properties) {
+        this.em = em;
+        this.template = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${log.retention.cron:-}")
+    public void scheduledPurge() throws InterruptedException {
+        LogRetentionReport report = purge();
+        log.info("로그 정리 완료 {}", report);
+    }
+
+    // maxAge 보다 오래된 로그를 지운다. archiveDirectory 가 있으면 먼저 보관한다.
+    public LogRetentionReport purge() throws InterruptedException {
+        Instant cutoff = Instant.now().minus(properties.getMaxAge());
+        if (properties.getArchiveDirectory() == null) {
+            return purgeOlderThan(cutoff, null);
+        }
+
+        Path file = Paths.get(properties.getArchiveDirectory(), "log-archive-" + cutoff.toEpochMilli() + ".ndjson");
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                return purgeOlderThan(cutoff, new NdjsonExportSink(channel));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("로그 보관 파일을 쓸 수 없습니다. file=" + file, e);
+        }
+    }
+
+    public LogRetentionReport purgeOlderThan(Instant cutoff, @Nullable ExportSink archive) throws InterruptedException {
+        LogRetentionReport report = new LogRetentionReport();
+        long start = System.nanoTime();
+        try {
+            if (archive != null) {
+                archive.begin(LogRepository.EXPORT_COLUMNS.names());
+            }
+            while (true) {
+                int deleted = template.execute(status -> purgeChunk(cutoff, archive));
+                if (deleted == 0) {
+                    break;
+                }
+                report.chunk(deleted, archive != null ? deleted : 0);
+                if (deleted < properties.getChunkSize()) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(properties.getPause().toMillis());
+            }
+            if (archive != null) {
+                archive.end();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("로그 보관 실패", e);
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    // 청크 하나 = 트랜잭션 하나, 보관이 실패하면 이 청크는 지우지 않는다.
+    // 보관한 행은 삭제를 커밋하기 전에 디스크까지 내보낸다. 그 사이에 죽으면 다음 정리 때 한 번 더 보관된다. (유실 대신 중복)
+    private int purgeChunk(Instant cutoff, @Nullable ExportSink archive) {
+        List<Long> ids = archive != null ? archiveChunk(cutoff, archive)
+                : em.createNamedQuery(Log.FIND_IDS_CREATED_BEFORE, Long.class)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(properties.getChunkSize())
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return em.createNamedQuery(Log.DELETE_BY_IDS)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    private List<Long> archiveChunk(Instant cutoff, ExportSink archive) {
+        List<Log> logs = em.createNamedQuery(Log.FIND_CREATED_BEFORE, Log.class)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(properties.getChunkSize())
+                .getResultList();
+
+        Object[] buffer = new Object[LogRepository.EXPORT_COLUMNS.size()];
+        try {
+            for (Log logMessage : logs) {
+                archive.row(LogRepository.EXPORT_COLUMNS.values(logMessage, buffer));
+            }
+            archive.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("로그 보관 실패", e);
+        }
+        List<Long> ids = logs.stream().map(Log::getId).collect(Collectors.toList());
+        em.clear();
+        return ids;
+    }
+}
@@ -0,0 +1,30 @@
+package hello.springtx.propagation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "log.sink")
+public class LogSinkProperties {
+
+    // 큐에 쌓아둘 수 있는 최대 로그 수
+    private int capacity = 10_000;
+
+    // 한 트랜잭션에 모아서 저장할 로그 수
+    private int batchSize = 50;
+
+    // 백그라운드 writer가 큐를 비우는 주기
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    // 큐가 가득 찼을 때의 처리 방법
+    private LogWriteBehindSink.OverflowPolicy overflowPolicy = LogWriteBehindSink.OverflowPolicy.BLOCK;
+
+    // BLOCK 일 때 자리가 날 때까지 기다리는 최대 시간, 넘으면 버린다.
+    private Duration offerTimeout = Duration.ofMillis(100);
+}
@@ -0,0 +1,172 @@
+package hello.springtx.propagation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 로그를 바깥 트랜잭션이 커밋된 뒤에 큐에 넣고, 백그라운드 writer가 모아서 저장한다. (write-behind)
+ * LogRepository.save(REQUIRES_NEW)처럼 커넥션을 하나 더 잡고 커밋을 한 번 더 하지 않는다.
+ * 대신 로그는 조금 늦게 저장되고, 큐가 넘치거나 저장에 실패하면 유실될 수 있다.
+ */
+@Slf4j
+@Component
+public class LogWriteBehindSink {
+
+    public enum OverflowPolicy {
+        BLOCK,       // offerTimeout 만큼 기다리고 그래도 자리가 없으면 버린다.
+        DROP,        // 기다리지 않고 버린다.
+        CALLER_RUNS  // 호출한 스레드가 바로 저장한다.
+    }
+
+    private final EntityManager em;
+    private final LogSinkProperties properties;
+    private final TransactionTemplate template;
+    private final BlockingQueue<Log> queue;
+    private final ScheduledExecutorService writer;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public LogWriteBehindSink(EntityManager em, PlatformTransactionManager transactionManager, LogSinkProperties properties) {
+        this.em = em;
+        this.properties = properties;
+        // afterCommit 에서 호출될 수 있으므로 끝난 트랜잭션에 참여하지 않도록 항상 새 트랜잭션을 연다.
+        this.template = new TransactionTemplate(transactionManager);
+        this.template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getFlushInterval().toMillis();
+        writer.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // 종료 시점에는 남은 로그를 동기로 모두 저장한다.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        int count = flush();
+        log.info("log write-behind 종료, 남은 로그 저장 count={}", count);
+    }
+
+    // 트랜잭션 안이면 커밋된 뒤에 큐에 넣는다. 롤백되면 로그도 남기지 않는다.
+    public void enqueue(Log logMessage) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(logMessage);
+                }
+            });
+        } else {
+            offer(logMessage);
+        }
+    }
+
+    // 큐를 끝까지 비운다. 저장한 로그 수를 돌려준다.
+    public int flush() {
+        int total = 0;
+        List<Log> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            write(batch);
+            total += batch.size();
+            batch.clear();
+        }
+        return total;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void offer(Log logMessage) {
+        enqueued.increment();
+        if (queue.offer(logMessage)) {
+            return;
+        }
+
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                try {
+                    if (queue.offer(logMessage, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(logMessage);
+                break;
+            case CALLER_RUNS:
+                write(List.of(logMessage));
+                break;
+            default:
+                drop(logMessage);
+        }
+    }
+
+    private void drop(Log logMessage) {
+        dropped.increment();
+        log.warn("log 큐가 가득 차서 버립니다. logMessage={}", logMessage.getMessage());
+    }
+
+    // 배치 하나를 트랜잭션 하나로 저장한다. hibernate.jdbc.batch_size 단위로 배치 insert 된다.
+    private void write(List<Log> batch) {
+        try {
+            template.executeWithoutResult(status -> batch.forEach(em::persist));
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.warn("log 배치 저장 실패 size={}", batch.size(), e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("log write-behind flush 실패", e);
+        }
+    }
+}
@@ -4,6 +4,13 @@ package hello.springtx.propagation;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -11,16 +18,24 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member") // id -> member
+@NaturalIdCache(region = "member-natural-id") // username -> id
 @Getter
 @Setter
 @NoArgsConstructor
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", strategy = "hello.springtx.jpa.ConfigurableSequenceGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")
+    }) // 시퀀스를 한 번 호출해서 id를 50개씩 미리 받아온다. (insert 배치 가능)
     private Long id;
 
-    @Column
+    @NaturalId // username 에 unique 제약(인덱스)이 생기고 natural id 로 조회할 수 있다.
+    @Column(nullable = false)
     private String username;
 
 
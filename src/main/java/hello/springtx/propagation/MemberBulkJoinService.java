@@ -0,0 +1,30 @@
+package hello.springtx.propagation;
+
+import hello.springtx.tx.parallel.ParallelResult;
+import hello.springtx.tx.parallel.ParallelTransactionTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 대량 가입, 파티션마다 트랜잭션 하나로 여러 스레드에서 가입시킨다.
+ * joinV3 는 파티션 트랜잭션에 참여하고 로그는 커밋 뒤에 저장되므로 파티션 하나가 커넥션 하나만 쓴다.
+ * (joinV1 은 REQUIRES_NEW 로 파티션마다 커넥션을 하나 더 잡는다.)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberBulkJoinService {
+
+    private final MemberService memberService;
+    private final ParallelTransactionTemplate parallelTransactionTemplate;
+
+    public ParallelResult<String, Integer> joinAll(List<String> usernames, int partitionSize, ParallelTransactionTemplate.Mode mode) {
+        return parallelTransactionTemplate.execute(usernames, partitionSize, mode, (partition, status) -> {
+            partition.forEach(memberService::joinV3);
+            return partition.size();
+        });
+    }
+}
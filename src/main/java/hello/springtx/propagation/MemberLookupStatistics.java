@@ -0,0 +1,39 @@
+package hello.springtx.propagation;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+// MemberRepository.find(username) 의 2차 캐시 적중/실패 통계
+// hibernate.generate_statistics=true 일 때만 값이 쌓인다.
+@Component
+@RequiredArgsConstructor
+public class MemberLookupStatistics {
+
+    public static final String NATURAL_ID_REGION = "member-natural-id";
+    public static final String ENTITY_REGION = "member";
+
+    private final EntityManagerFactory emf;
+
+    // username -> id 해석: 캐시 적중, 실패, 캐시 저장, 디비 조회 횟수
+    public NaturalIdStatistics naturalId() {
+        return statistics().getNaturalIdStatistics(Member.class.getName());
+    }
+
+    public CacheRegionStatistics naturalIdRegion() {
+        return statistics().getDomainDataRegionStatistics(NATURAL_ID_REGION);
+    }
+
+    public CacheRegionStatistics entityRegion() {
+        return statistics().getDomainDataRegionStatistics(ENTITY_REGION);
+    }
+
+    private Statistics statistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -2,6 +2,7 @@ package hello.springtx.propagation;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,12 +23,13 @@ public class MemberRepository {
         em.persist(member);
     }
 
+    // username 은 natural id 다. JPQL 대신 natural id 로 조회하면
+    // 2차 캐시(member-natural-id -> member)에 있을 때 디비를 거치지 않는다.
+    // 저장은 READ_WRITE 캐시라 커밋된 뒤에 캐시에 반영되고, 롤백되면 반영되지 않는다.
+    @Transactional(readOnly = true) // 라우팅이 켜져 있으면 replica 에서 읽는다.
     public Optional<Member> find(String username){
-        return em.createQuery("select m from Member m where m.username = :username",Member.class)
-                .setParameter("username",username)
-                .getResultList().stream().findAny();
-                // JPQL
-
-
+        return em.unwrap(Session.class)
+                .bySimpleNaturalId(Member.class)
+                .loadOptional(username);
     }
 }
@@ -15,6 +15,8 @@ public class MemberService {
 
     private final LogRepository logRepository;
 
+    private final LogWriteBehindSink logWriteBehindSink;
+
     @Transactional
     public void joinV1(String username){
         Member member = new Member(username);
@@ -55,4 +57,41 @@ public class MemberService {
         }
         log.info("== logRepository 호출 종료 ==");
     }
+
+    @Transactional
+    public void joinV3(String username){
+        // 로그를 커밋 이후에 비동기로 저장하는 예제 (write-behind)
+        // REQUIRES_NEW 처럼 커넥션을 하나 더 쓰지 않는다. 커넥션 하나, 커밋 한 번으로 끝난다.
+        Member member = new Member(username);
+        Log logMessage = new Log(username);
+
+        log.info("== memberRepository 호출 시작 ==");
+        memberRepository.save(member);
+        log.info("== memberRepository 호출 종료 ==");
+
+        // 큐에 넣는 것은 커밋된 뒤에 일어난다. 롤백되면 로그도 남지 않는다.
+        logWriteBehindSink.enqueue(logMessage);
+    }
+
+    @Transactional
+    public void joinV4(String username){
+        // joinV2 와 같은 부분 실패 처리를 세이브포인트(NESTED)로 하는 예제
+        // 로그 저장이 실패하면 세이브포인트까지만 롤백하고 member 는 커밋한다. 커넥션 하나, 커밋 한 번
+        // insert 가 DB 에서 실패해도 같다. saveNested 가 em.flush() 대신 SavepointFlush 로 flush 하기 때문이다.
+        Member member = new Member(username);
+        Log logMessage = new Log(username);
+
+        log.info("== memberRepository 호출 시작 ==");
+        memberRepository.save(member);
+        log.info("== memberRepository 호출 종료 ==");
+
+        log.info("== logRepository 호출 시작 ==");
+        try{
+            logRepository.saveNested(logMessage);
+        }catch (RuntimeException e){
+            log.info("log 저장에 실패했습니다. logMessage={}",logMessage.getMessage());
+            log.info("정상 흐름 반환");
+        }
+        log.info("== logRepository 호출 종료 ==");
+    }
 }
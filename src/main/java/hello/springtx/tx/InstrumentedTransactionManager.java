@@ -0,0 +1,152 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 실제 트랜잭션 매니저를 감싸서 시작/커밋/롤백 시간을 재고 TransactionLifecycleListener 에 알린다.
+ * 스레드마다 열려 있는 논리 트랜잭션(TransactionFrame)을 스택으로 들고 있는다.
+ */
+public class InstrumentedTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final ObjectProvider<TransactionLifecycleListener> listenerProvider;
+    private volatile List<TransactionLifecycleListener> listeners;
+
+    private final ThreadLocal<Deque<TransactionFrame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public InstrumentedTransactionManager(PlatformTransactionManager delegate,
+                                          ObjectProvider<TransactionLifecycleListener> listenerProvider) {
+        this.delegate = delegate;
+        this.listenerProvider = listenerProvider;
+    }
+
+    public PlatformTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    // 이 스레드에서 가장 안쪽에 열려 있는 논리 트랜잭션
+    @Nullable
+    public TransactionFrame currentFrame() {
+        return frames.get().peek();
+    }
+
+    @Override
+    public TransactionStatus getTransaction(@Nullable TransactionDefinition definition) throws TransactionException {
+        TransactionDefinition def = definition != null ? definition : TransactionDefinition.withDefaults();
+        List<TransactionLifecycleListener> listeners = listeners();
+        for (TransactionLifecycleListener listener : listeners) {
+            listener.beforeBegin(def);
+        }
+
+        boolean existingTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        long start = System.nanoTime();
+        TransactionStatus status = delegate.getTransaction(definition);
+        long beginNanos = System.nanoTime() - start;
+
+        Deque<TransactionFrame> stack = frames.get();
+        TransactionFrame frame = new TransactionFrame(status, def, existingTransaction, stack.size(), start, beginNanos);
+        stack.push(frame);
+        for (TransactionLifecycleListener listener : listeners) {
+            listener.afterBegin(frame);
+        }
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        TransactionFrame frame = pop(status);
+        // rollback-only 면 commit 을 호출해도 롤백된다.
+        boolean rollback = status.isRollbackOnly();
+        long start = System.nanoTime();
+        try {
+            delegate.commit(status);
+        } catch (UnexpectedRollbackException e) {
+            long nanos = System.nanoTime() - start;
+            if (frame != null) {
+                for (TransactionLifecycleListener listener : listeners()) {
+                    listener.afterRollback(frame, nanos);
+                    listener.onUnexpectedRollback(frame, e);
+                }
+            }
+            throw e;
+        } catch (RuntimeException | Error e) {
+            fireCompletion(frame, rollback, System.nanoTime() - start, e);
+            throw e;
+        }
+        fireCompletion(frame, rollback, System.nanoTime() - start, null);
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        TransactionFrame frame = pop(status);
+        long start = System.nanoTime();
+        try {
+            delegate.rollback(status);
+        } finally {
+            fireCompletion(frame, true, System.nanoTime() - start, null);
+        }
+    }
+
+    private void fireCompletion(@Nullable TransactionFrame frame, boolean rollback, long nanos, @Nullable Throwable failure) {
+        if (frame == null) {
+            return;
+        }
+        for (TransactionLifecycleListener listener : listeners()) {
+            if (rollback) {
+                listener.afterRollback(frame, nanos);
+            } else {
+                listener.afterCommit(frame, nanos, failure);
+            }
+        }
+    }
+
+    @Nullable
+    private TransactionFrame pop(TransactionStatus status) {
+        Deque<TransactionFrame> stack = frames.get();
+        TransactionFrame found = null;
+        if (!stack.isEmpty() && stack.peek().getStatus() == status) {
+            found = stack.pop();
+        } else {
+            // 순서가 어긋난 경우(직접 TransactionStatus 를 다루는 코드)도 해당 프레임만 뺀다.
+            for (Iterator<TransactionFrame> it = stack.iterator(); it.hasNext(); ) {
+                TransactionFrame frame = it.next();
+                if (frame.getStatus() == status) {
+                    it.remove();
+                    found = frame;
+                    break;
+                }
+            }
+        }
+        if (stack.isEmpty()) {
+            frames.remove();
+        }
+        return found;
+    }
+
+    private List<TransactionLifecycleListener> listeners() {
+        List<TransactionLifecycleListener> result = listeners;
+        if (result == null) {
+            result = listenerProvider.orderedStream().collect(Collectors.toUnmodifiableList());
+            listeners = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedTransactionManager{" + delegate + "}";
+    }
+}
@@ -0,0 +1,20 @@
+package hello.springtx.tx;
+
+import org.springframework.core.Ordered;
+
+// 트랜잭션 어드바이저(LOWEST_PRECEDENCE) 바깥에서 도는 어드바이저들의 순서
+// 값이 작을수록 바깥쪽에서 먼저 실행된다.
+public final class TransactionAdvisorOrder {
+
+    // 가장 바깥, 시도할 때마다 커넥션 예약부터 트랜잭션까지 새로 한다.
+    public static final int RETRY = Ordered.LOWEST_PRECEDENCE - 200;
+
+    // 트랜잭션을 시작하기 전에 커넥션 여유를 확인한다.
+    public static final int ADMISSION = Ordered.LOWEST_PRECEDENCE - 100;
+
+    // 트랜잭션 바로 바깥에서 매서드가 어떤 예외로 끝났는지 센다.
+    public static final int METRICS = Ordered.LOWEST_PRECEDENCE - 10;
+
+    private TransactionAdvisorOrder() {
+    }
+}
@@ -0,0 +1,61 @@
+package hello.springtx.tx;
+
+import lombok.Getter;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+// getTransaction 한 번에 해당하는 논리 트랜잭션 (물리 트랜잭션을 새로 열었거나 기존 트랜잭션에 참여)
+@Getter
+public class TransactionFrame {
+
+    // 이름이 없는 트랜잭션 (TransactionTemplate 등)
+    public static final String UNNAMED = "(unnamed)";
+
+    private final TransactionStatus status;
+    private final String name;
+    private final int propagationBehavior;
+    private final boolean readOnly;
+    private final boolean newTransaction;
+    private final boolean suspending;     // 기존 트랜잭션을 보류시키고 시작했다.
+    private final int depth;              // 같은 스레드에서 바깥에 열려 있는 논리 트랜잭션 수
+    private final long startNanos;        // getTransaction 을 호출한 시각
+    private final long beginNanos;        // getTransaction 에 걸린 시간
+
+    public TransactionFrame(TransactionStatus status, TransactionDefinition definition, boolean existingTransaction,
+                            int depth, long startNanos, long beginNanos) {
+        this.status = status;
+        this.name = definition.getName() != null ? definition.getName() : UNNAMED;
+        this.propagationBehavior = definition.getPropagationBehavior();
+        this.readOnly = definition.isReadOnly();
+        this.newTransaction = status.isNewTransaction();
+        this.suspending = existingTransaction
+                && (propagationBehavior == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                || propagationBehavior == TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.depth = depth;
+        this.startNanos = startNanos;
+        this.beginNanos = beginNanos;
+    }
+
+    public String getPropagationName() {
+        return propagationName(propagationBehavior);
+    }
+
+    public static String propagationName(int propagationBehavior) {
+        switch (propagationBehavior) {
+            case TransactionDefinition.PROPAGATION_REQUIRED: return "REQUIRED";
+            case TransactionDefinition.PROPAGATION_SUPPORTS: return "SUPPORTS";
+            case TransactionDefinition.PROPAGATION_MANDATORY: return "MANDATORY";
+            case TransactionDefinition.PROPAGATION_REQUIRES_NEW: return "REQUIRES_NEW";
+            case TransactionDefinition.PROPAGATION_NOT_SUPPORTED: return "NOT_SUPPORTED";
+            case TransactionDefinition.PROPAGATION_NEVER: return "NEVER";
+            case TransactionDefinition.PROPAGATION_NESTED: return "NESTED";
+            default: return String.valueOf(propagationBehavior);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + "{" + getPropagationName() + (newTransaction ? ", new" : ", joined")
+                + (suspending ? ", suspending" : "") + ", depth=" + depth + "}";
+    }
+}
@@ -0,0 +1,42 @@
+package hello.springtx.tx;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// 등록된 PlatformTransactionManager 를 InstrumentedTransactionManager 로 감싼다.
+@Configuration
+public class TransactionInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor instrumentedTransactionManagerPostProcessor(
+            ObjectProvider<TransactionLifecycleListener> listeners) {
+        return new InstrumentedTransactionManagerPostProcessor(listeners);
+    }
+
+    static class InstrumentedTransactionManagerPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<TransactionLifecycleListener> listeners;
+
+        InstrumentedTransactionManagerPostProcessor(ObjectProvider<TransactionLifecycleListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof PlatformTransactionManager && !(bean instanceof InstrumentedTransactionManager)) {
+                return new InstrumentedTransactionManager((PlatformTransactionManager) bean, listeners);
+            }
+            return bean;
+        }
+
+        // 다른 후처리기가 실제 트랜잭션 매니저를 먼저 설정할 수 있도록 가장 마지막에 감싼다.
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
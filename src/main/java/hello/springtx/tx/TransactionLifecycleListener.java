@@ -0,0 +1,28 @@
+package hello.springtx.tx;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+
+// InstrumentedTransactionManager 가 트랜잭션 시작/종료 때 호출한다.
+// 모든 트랜잭션 경로에서 불리므로 가볍게 구현해야 한다.
+public interface TransactionLifecycleListener {
+
+    // 트랜잭션을 시작하기 전, 예외를 던지면 트랜잭션을 시작하지 않는다.
+    default void beforeBegin(TransactionDefinition definition) {
+    }
+
+    default void afterBegin(TransactionFrame frame) {
+    }
+
+    // commit 을 호출했고 롤백으로 바뀌지 않았다. 실패했다면 failure 가 있다.
+    default void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+    }
+
+    // rollback 을 호출했거나, commit 을 호출했지만 rollback-only 여서 롤백되었다.
+    default void afterRollback(TransactionFrame frame, long rollbackNanos) {
+    }
+
+    // 바깥 트랜잭션 커밋이 안쪽의 rollback-only 표시 때문에 롤백되었다.
+    default void onUnexpectedRollback(TransactionFrame frame, UnexpectedRollbackException ex) {
+    }
+}
@@ -0,0 +1,26 @@
+package hello.springtx.tx;
+
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+
+// @Transactional(스프링, javax 모두)이 붙은 매서드에 매칭되는 포인트컷
+// 트랜잭션 어드바이저 바깥에서 같이 도는 어드바이저들이 쓴다.
+public class TransactionalMethodPointcut extends StaticMethodMatcherPointcut {
+
+    private final TransactionAttributeSource attributeSource = new AnnotationTransactionAttributeSource();
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return getTransactionAttribute(method, targetClass) != null;
+    }
+
+    @Nullable
+    public TransactionAttribute getTransactionAttribute(Method method, @Nullable Class<?> targetClass) {
+        return attributeSource.getTransactionAttribute(method, targetClass);
+    }
+}
@@ -0,0 +1,86 @@
+package hello.springtx.tx.admission;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// 진입 매서드 하나의 예약 깊이와 통계
+public class EntryPointStats {
+
+    private final String name;
+    private final int configuredDepth;
+    private volatile int observedDepth;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder depthOverflows = new LongAdder();
+
+    EntryPointStats(String name, int configuredDepth) {
+        this.name = name;
+        this.configuredDepth = configuredDepth;
+    }
+
+    // 설정한 깊이와 관측한 깊이 중 큰 쪽만큼 미리 예약한다.
+    int reservedDepth() {
+        return Math.max(configuredDepth, observedDepth);
+    }
+
+    void observe(int depth) {
+        if (depth > observedDepth) {
+            synchronized (this) {
+                observedDepth = Math.max(observedDepth, depth);
+            }
+        }
+    }
+
+    void admitted() {
+        admitted.increment();
+    }
+
+    void waited() {
+        waits.increment();
+    }
+
+    void rejected() {
+        rejections.increment();
+    }
+
+    void depthOverflow() {
+        depthOverflows.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getConfiguredDepth() {
+        return configuredDepth;
+    }
+
+    public int getObservedDepth() {
+        return observedDepth;
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    // 예약한 깊이보다 더 깊게 REQUIRES_NEW 가 열린 횟수, 0 이 아니면 설정을 올려야 한다.
+    public long getDepthOverflowCount() {
+        return depthOverflows.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{reservedDepth=" + reservedDepth() + ", admitted=" + getAdmittedCount()
+                + ", waits=" + getWaitCount() + ", rejections=" + getRejectedCount()
+                + ", depthOverflows=" + getDepthOverflowCount() + "}";
+    }
+}
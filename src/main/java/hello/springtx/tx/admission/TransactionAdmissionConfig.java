@@ -0,0 +1,39 @@
+package hello.springtx.tx.admission;
+
+import hello.springtx.datasource.ConnectionPools;
+import hello.springtx.tx.TransactionAdvisorOrder;
+import hello.springtx.tx.TransactionalMethodPointcut;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// tx.admission.enabled=true 일 때 @Transactional 진입점에 커넥션 예약을 건다.
+@Configuration
+@ConditionalOnProperty(prefix = "tx.admission", name = "enabled", havingValue = "true")
+public class TransactionAdmissionConfig {
+
+    private final TransactionalMethodPointcut pointcut = new TransactionalMethodPointcut();
+
+    @Bean
+    public TransactionAdmissionController transactionAdmissionController(DataSource dataSource, TransactionAdmissionProperties properties) {
+        return new TransactionAdmissionController(pointcut, properties, resolvePoolSize(dataSource, properties));
+    }
+
+    @Bean
+    public Advisor transactionAdmissionAdvisor(TransactionAdmissionController transactionAdmissionController) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, transactionAdmissionController);
+        advisor.setOrder(TransactionAdvisorOrder.ADMISSION);
+        return advisor;
+    }
+
+    private static int resolvePoolSize(DataSource dataSource, TransactionAdmissionProperties properties) {
+        if (properties.getPermits() > 0) {
+            return properties.getPermits();
+        }
+        return ConnectionPools.maximumPoolSize(dataSource, "tx.admission.permits");
+    }
+}
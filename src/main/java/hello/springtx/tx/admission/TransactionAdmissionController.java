@@ -0,0 +1,203 @@
+package hello.springtx.tx.admission;
+
+import hello.springtx.tx.TransactionalMethodPointcut;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 바깥 트랜잭션을 시작하기 전에 안에서 필요한 커넥션까지 한 번에 예약한다.
+ * joinV1 처럼 바깥 커넥션을 잡은 채로 REQUIRES_NEW 가 커넥션을 하나 더 요구하면
+ * 풀 크기만큼 동시에 들어온 요청이 서로 두 번째 커넥션을 기다리며 멈춘다. (풀 고갈 데드락)
+ * 진입점마다 (1 + REQUIRES_NEW 중첩 깊이) 만큼 퍼밋을 먼저 받고, 모자라면 기다리거나 거절한다.
+ */
+@Slf4j
+public class TransactionAdmissionController implements MethodInterceptor {
+
+    private final TransactionalMethodPointcut pointcut;
+    private final TransactionAdmissionProperties properties;
+    private final int poolSize;
+    private final Semaphore permits;
+
+    private final ConcurrentMap<String, EntryPointStats> entryPoints = new ConcurrentHashMap<>();
+    private final ThreadLocal<Admission> currentAdmission = new ThreadLocal<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public TransactionAdmissionController(TransactionalMethodPointcut pointcut, TransactionAdmissionProperties properties, int poolSize) {
+        this.pointcut = pointcut;
+        this.properties = properties;
+        this.poolSize = poolSize;
+        // 퍼밋을 여러 개 받는 요청이 작은 요청에게 계속 밀리지 않도록 공정 모드로 둔다.
+        this.permits = new Semaphore(poolSize, true);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        TransactionAttribute attribute = pointcut.getTransactionAttribute(invocation.getMethod(), targetClass);
+
+        Admission admission = currentAdmission.get();
+        if (admission != null) {
+            return proceedNested(invocation, attribute, admission);
+        }
+        if (attribute == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            // TransactionTemplate 등 이 컨트롤러 밖에서 시작한 트랜잭션은 관여하지 않는다.
+            return invocation.proceed();
+        }
+        return admit(invocation, entryPointName(invocation, targetClass));
+    }
+
+    private Object admit(MethodInvocation invocation, String entryPointName) throws Throwable {
+        EntryPointStats entryPoint = entryPoints.computeIfAbsent(entryPointName,
+                name -> new EntryPointStats(name, properties.getNestedDepth().getOrDefault(name, 0)));
+
+        int reservedDepth = entryPoint.reservedDepth();
+        int required = Math.min(1 + reservedDepth, poolSize);
+        acquire(entryPoint, required);
+
+        Admission admission = new Admission(entryPoint, reservedDepth);
+        currentAdmission.set(admission);
+        try {
+            return invocation.proceed();
+        } finally {
+            currentAdmission.remove();
+            permits.release(required);
+            entryPoint.observe(admission.maxDepth);
+        }
+    }
+
+    private void acquire(EntryPointStats entryPoint, int required) {
+        if (permits.tryAcquire(required)) {
+            admitted(entryPoint);
+            return;
+        }
+
+        waits.increment();
+        entryPoint.waited();
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(required, properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+        }
+
+        if (!acquired) {
+            rejections.increment();
+            entryPoint.rejected();
+            throw new TransactionAdmissionRejectedException("커넥션 " + required + "개를 "
+                    + properties.getMaxWait().toMillis() + "ms 안에 예약하지 못했습니다. entryPoint=" + entryPoint.getName());
+        }
+        admitted(entryPoint);
+    }
+
+    private void admitted(EntryPointStats entryPoint) {
+        admitted.increment();
+        entryPoint.admitted();
+    }
+
+    // 이미 예약된 진입점 안의 호출, REQUIRES_NEW 로 커넥션을 새로 잡는 깊이만 센다.
+    private Object proceedNested(MethodInvocation invocation, TransactionAttribute attribute, Admission admission) throws Throwable {
+        boolean newConnection = attribute != null
+                && attribute.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                && TransactionSynchronizationManager.isActualTransactionActive();
+        if (!newConnection) {
+            return invocation.proceed();
+        }
+
+        admission.enter();
+        if (admission.depth > admission.reservedDepth) {
+            admission.entryPoint.depthOverflow();
+            log.warn("예약한 깊이보다 깊은 REQUIRES_NEW 입니다. entryPoint={}, depth={}, reserved={}",
+                    admission.entryPoint.getName(), admission.depth, admission.reservedDepth);
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            admission.exit();
+        }
+    }
+
+    private static String entryPointName(MethodInvocation invocation, Class<?> targetClass) {
+        Class<?> type = targetClass != null ? targetClass : invocation.getMethod().getDeclaringClass();
+        return ClassUtils.getShortName(type) + "." + invocation.getMethod().getName();
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    public Collection<EntryPointStats> getEntryPoints() {
+        return Collections.unmodifiableCollection(entryPoints.values());
+    }
+
+    public EntryPointStats getEntryPoint(String name) {
+        return entryPoints.get(name);
+    }
+
+    // 스레드 하나가 진입점 안에서 열고 있는 REQUIRES_NEW 깊이
+    private static class Admission {
+
+        private final EntryPointStats entryPoint;
+        private final int reservedDepth;
+        private int depth;
+        private int maxDepth;
+
+        Admission(EntryPointStats entryPoint, int reservedDepth) {
+            this.entryPoint = entryPoint;
+            this.reservedDepth = reservedDepth;
+        }
+
+        void enter() {
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        void exit() {
+            depth--;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package hello.springtx.tx.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tx.admission")
+public class TransactionAdmissionProperties {
+
+    private boolean enabled = false;
+
+    // 동시에 내줄 수 있는 커넥션 수, 0 이면 커넥션 풀(Hikari) 크기를 그대로 쓴다.
+    private int permits = 0;
+
+    // 커넥션 여유가 없을 때 기다리는 최대 시간, 넘으면 트랜잭션을 거절한다.
+    private Duration maxWait = Duration.ofSeconds(1);
+
+    // 진입 매서드별 REQUIRES_NEW 최대 중첩 깊이, 키는 "클래스 단순 이름.매서드 이름"
+    // tx.admission.nested-depth.[MemberService.joinV1]=1
+    // 설정하지 않은 진입점은 실행하면서 관측한 최대 깊이를 쓴다.
+    private Map<String, Integer> nestedDepth = new HashMap<>();
+}
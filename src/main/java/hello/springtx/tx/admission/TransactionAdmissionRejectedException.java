@@ -0,0 +1,11 @@
+package hello.springtx.tx.admission;
+
+import org.springframework.transaction.CannotCreateTransactionException;
+
+// 필요한 커넥션을 maxWait 안에 예약하지 못해서 트랜잭션을 시작하지 않았다.
+public class TransactionAdmissionRejectedException extends CannotCreateTransactionException {
+
+    public TransactionAdmissionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package hello.springtx.tx.aspectj;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.AdviceMode;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.aspectj.AnnotationTransactionAspect;
+
+/**
+ * tx.advice-mode=aspectj 면 @Transactional 을 프록시 대신 AspectJ 로 적용한다.
+ * 클래스에 직접 엮이므로 내부 호출(InternalCallV1Test 의 external() -> internal())에도 트랜잭션이 걸리고,
+ * 트랜잭션 때문에 프록시를 만들지 않는다. ./gradlew build -Paspectj 로 위빙한 빌드에서만 쓸 수 있다.
+ *
+ * 트랜잭션 바깥 어드바이저(재시도, 커넥션 예약, 측정)는 그대로 프록시로 걸린다.
+ * 프록시를 완전히 없애려면 tx.metrics.enabled=false 도 같이 둔다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tx", name = "advice-mode", havingValue = "aspectj")
+@EnableTransactionManagement(mode = AdviceMode.ASPECTJ)
+public class AspectJTransactionConfig implements DisposableBean {
+
+    @Bean
+    public static AspectJWeavingVerifier aspectJWeavingVerifier(ListableBeanFactory beanFactory) {
+        return new AspectJWeavingVerifier(beanFactory);
+    }
+
+    // AnnotationTransactionAspect 는 클래스로더에 하나뿐이다.
+    // 트랜잭션 매니저를 비워 두면 처음 찾은 기본 매니저를 aspect 안의 캐시에 남기고, 다음 컨텍스트도 그 캐시를 쓴다.
+    // 그래서 싱글톤을 모두 만든 뒤 이 컨텍스트의 매니저(InstrumentedTransactionManager 로 감싼 것)를 직접 넣는다.
+    @Bean
+    public static SmartInitializingSingleton aspectJTransactionManagerInitializer(ObjectProvider<TransactionManager> transactionManager) {
+        return () -> AnnotationTransactionAspect.aspectOf().setTransactionManager(transactionManager.getObject());
+    }
+
+    // 컨텍스트가 닫히면 닫힌 매니저 대신 항상 실패하는 매니저를 넣는다. (null 이면 캐시에 남은 닫힌 매니저를 쓴다.)
+    // 다음 컨텍스트가 자기 매니저를 넣기 전(싱글톤 초기화 중)에 위빙된 @Transactional 을 부르면 바로 실패한다.
+    @Override
+    public void destroy() {
+        AnnotationTransactionAspect aspect = AnnotationTransactionAspect.aspectOf();
+        aspect.setTransactionManager(new ClosedTransactionManager());
+        aspect.setBeanFactory(null);
+        aspect.setTransactionAttributeSource(new AnnotationTransactionAttributeSource(false));
+    }
+
+    private static class ClosedTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(@Nullable TransactionDefinition definition) {
+            throw new CannotCreateTransactionException("AspectJ 트랜잭션을 쓰던 컨텍스트가 닫혔고, 새 컨텍스트가 아직 준비되지 않았습니다.");
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            throw new IllegalTransactionStateException("AspectJ 트랜잭션을 쓰던 컨텍스트가 닫혔습니다.");
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            throw new IllegalTransactionStateException("AspectJ 트랜잭션을 쓰던 컨텍스트가 닫혔습니다.");
+        }
+    }
+}
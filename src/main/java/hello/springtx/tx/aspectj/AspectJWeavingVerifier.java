@@ -0,0 +1,81 @@
+package hello.springtx.tx.aspectj;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * AspectJ 모드인데 위빙되지 않은 클래스가 있으면 @Transactional 이 아무 말 없이 무시된다.
+ * 기동할 때 @Transactional 빈 클래스가 모두 위빙되었는지 확인하고, 아니면 기동을 실패시킨다.
+ */
+@Slf4j
+public class AspectJWeavingVerifier implements SmartInitializingSingleton {
+
+    private final ListableBeanFactory beanFactory;
+    private final TransactionAttributeSource attributeSource = new AnnotationTransactionAttributeSource(false);
+
+    public AspectJWeavingVerifier(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Set<String> unwoven = new TreeSet<>();
+        int woven = 0;
+        for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> type = beanFactory.getType(beanName, false);
+            // 스프링 데이터 리포지토리 같은 JDK 동적 프록시는 자체 트랜잭션 인터셉터를 가진다.
+            if (type == null || Proxy.isProxyClass(type)) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(type);
+            if (!hasTransactionalMethod(userClass)) {
+                continue;
+            }
+            if (isWoven(userClass)) {
+                woven++;
+            } else {
+                unwoven.add(userClass.getName());
+            }
+        }
+        if (!unwoven.isEmpty()) {
+            throw new IllegalStateException("tx.advice-mode=aspectj 인데 위빙되지 않은 @Transactional 클래스가 있습니다."
+                    + " ./gradlew -Paspectj 로 빌드해주세요. classes=" + unwoven);
+        }
+        log.info("AspectJ 트랜잭션 모드 wovenClasses={}", woven);
+    }
+
+    // ajc 는 조인포인트 정보를 담는 ajc$ 로 시작하는 static 필드를 위빙한 클래스에 추가한다.
+    public static boolean isWoven(Class<?> clazz) {
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().startsWith("ajc$")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasTransactionalMethod(Class<?> userClass) {
+        if (!attributeSource.isCandidateClass(userClass)) {
+            return false;
+        }
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (attributeSource.getTransactionAttribute(method, userClass) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
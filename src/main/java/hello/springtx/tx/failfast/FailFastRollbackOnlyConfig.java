@@ -0,0 +1,23 @@
+package hello.springtx.tx.failfast;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// tx.fail-fast-rollback-only.enabled=true 면 rollback-only 가 된 트랜잭션에서 더 이상 일하지 않고 바로 실패한다.
+@Configuration
+@ConditionalOnProperty(prefix = "tx.fail-fast-rollback-only", name = "enabled", havingValue = "true")
+public class FailFastRollbackOnlyConfig {
+
+    @Bean
+    public FailFastRollbackOnlyListener failFastRollbackOnlyListener() {
+        return new FailFastRollbackOnlyListener();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer rollbackOnlyStatementInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new RollbackOnlyStatementInspector());
+    }
+}
@@ -0,0 +1,56 @@
+package hello.springtx.tx.failfast;
+
+import hello.springtx.tx.TransactionFrame;
+import hello.springtx.tx.TransactionLifecycleListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 참여한 트랜잭션이 롤백되어(또는 setRollbackOnly 후 커밋되어) 물리 트랜잭션이 rollback-only 가 되면 표시를 남기고,
+ * 그 뒤로 같은 트랜잭션에 참여하려는 트랜잭션을 시작하기 전에 거절한다.
+ * REQUIRES_NEW, NOT_SUPPORTED, NEVER 는 참여하지 않으므로 그대로 둔다.
+ */
+@Slf4j
+public class FailFastRollbackOnlyListener implements TransactionLifecycleListener {
+
+    @Override
+    public void beforeBegin(TransactionDefinition definition) {
+        RollbackOnlyMarker marker = RollbackOnlyMarker.current();
+        if (marker != null && participates(definition.getPropagationBehavior())) {
+            throw marker.reject("트랜잭션 참여 " + (definition.getName() != null ? definition.getName() : TransactionFrame.UNNAMED)
+                    + "{" + TransactionFrame.propagationName(definition.getPropagationBehavior()) + "}");
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+        markIfRollbackOnly(frame);
+    }
+
+    @Override
+    public void afterRollback(TransactionFrame frame, long rollbackNanos) {
+        markIfRollbackOnly(frame);
+    }
+
+    private static void markIfRollbackOnly(TransactionFrame frame) {
+        // 새 물리 트랜잭션은 이미 끝났다. 참여한 트랜잭션만 본다.
+        if (frame.isNewTransaction() || RollbackOnlyMarker.current() != null
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        if (frame.getStatus() instanceof DefaultTransactionStatus
+                && ((DefaultTransactionStatus) frame.getStatus()).isGlobalRollbackOnly()) {
+            log.info("트랜잭션이 rollback-only 로 표시됨 markedBy={}", frame);
+            TransactionSynchronizationManager.registerSynchronization(RollbackOnlyMarker.mark(frame.toString()));
+        }
+    }
+
+    private static boolean participates(int propagationBehavior) {
+        return propagationBehavior == TransactionDefinition.PROPAGATION_REQUIRED
+                || propagationBehavior == TransactionDefinition.PROPAGATION_SUPPORTS
+                || propagationBehavior == TransactionDefinition.PROPAGATION_MANDATORY
+                || propagationBehavior == TransactionDefinition.PROPAGATION_NESTED;
+    }
+}
@@ -0,0 +1,52 @@
+package hello.springtx.tx.failfast;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+/**
+ * 물리 트랜잭션이 rollback-only 가 되었다는 표시, 그 트랜잭션의 동기화로 등록한다.
+ * REQUIRES_NEW 로 보류되면(suspend) 스레드에서 내리고, 다시 이어지면(resume) 올린다.
+ * 그래서 스레드 로컬 하나만 보면 지금 쓰는 트랜잭션이 rollback-only 인지 알 수 있다. (SQL 마다 확인하므로 가벼워야 한다.)
+ */
+final class RollbackOnlyMarker implements TransactionSynchronization {
+
+    private static final ThreadLocal<RollbackOnlyMarker> CURRENT = new ThreadLocal<>();
+
+    private final String markedBy;
+    private final Throwable markedAt;
+
+    private RollbackOnlyMarker(String markedBy) {
+        this.markedBy = markedBy;
+        this.markedAt = new Throwable("rollback-only 표시 위치, markedBy=" + markedBy + ", thread=" + Thread.currentThread().getName());
+    }
+
+    static RollbackOnlyMarker mark(String markedBy) {
+        RollbackOnlyMarker marker = new RollbackOnlyMarker(markedBy);
+        CURRENT.set(marker);
+        return marker;
+    }
+
+    @Nullable
+    static RollbackOnlyMarker current() {
+        return CURRENT.get();
+    }
+
+    RollbackOnlyTransactionException reject(String rejected) {
+        return new RollbackOnlyTransactionException(markedBy, rejected, markedAt);
+    }
+
+    @Override
+    public void suspend() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void resume() {
+        CURRENT.set(this);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        CURRENT.remove();
+    }
+}
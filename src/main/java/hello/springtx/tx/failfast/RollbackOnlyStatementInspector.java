@@ -0,0 +1,18 @@
+package hello.springtx.tx.failfast;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// rollback-only 트랜잭션에서 Hibernate 가 SQL 을 준비하려고 하면 거절한다. (JdbcTemplate 등 Hibernate 밖의 SQL 은 보지 않는다.)
+public class RollbackOnlyStatementInspector implements StatementInspector {
+
+    private static final int MAX_SQL_LENGTH = 200;
+
+    @Override
+    public String inspect(String sql) {
+        RollbackOnlyMarker marker = RollbackOnlyMarker.current();
+        if (marker != null) {
+            throw marker.reject("SQL " + (sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,23 @@
+package hello.springtx.tx.failfast;
+
+import org.springframework.transaction.IllegalTransactionStateException;
+
+/**
+ * 이미 rollback-only 로 표시된 트랜잭션에 참여하거나 SQL 을 실행하려고 했다.
+ * 어차피 롤백될 작업이므로 커밋 때 UnexpectedRollbackException 을 받기 전에 바로 실패시킨다.
+ * cause 는 rollback-only 를 표시한 위치의 스택이다.
+ */
+public class RollbackOnlyTransactionException extends IllegalTransactionStateException {
+
+    private final String markedBy;
+
+    RollbackOnlyTransactionException(String markedBy, String rejected, Throwable markedAt) {
+        super("트랜잭션이 이미 rollback-only 입니다. markedBy=" + markedBy + ", rejected=" + rejected, markedAt);
+        this.markedBy = markedBy;
+    }
+
+    // rollback-only 를 표시한 참여 트랜잭션의 이름
+    public String getMarkedBy() {
+        return markedBy;
+    }
+}
@@ -0,0 +1,93 @@
+package hello.springtx.tx.metrics;
+
+import hello.springtx.tx.TransactionFrame;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 트랜잭션마다 Hibernate flush 횟수를 세서 트랜잭션이 끝나면 TransactionMetricsRegistry 에 넣는다.
+ * AUTO flush 는 쿼리마다 영속성 컨텍스트 전체를 변경 감지하므로, 실제로 내보낸 것과 확인만 하고 끝난 것을 나눠서 센다.
+ * 기본 리스너 뒤에 붙여서 기본 리스너가 정한 결과(isFlushRequired)를 본다.
+ */
+class FlushCountingListener implements FlushEventListener, AutoFlushEventListener {
+
+    private final TransactionMetricsRegistry registry;
+    // 세션은 한 스레드에서만 쓰므로 카운터는 세션별로 따로 둔다.
+    private final ConcurrentMap<SessionImplementor, FlushCounts> counts = new ConcurrentHashMap<>();
+
+    FlushCountingListener(TransactionMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        counts(event.getSession()).flushes++;
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        if (event.isFlushRequired()) {
+            counts(event.getSession()).autoFlushes++;
+        } else if (event.getNumberOfEntitiesProcessed() > 0) {
+            counts(event.getSession()).autoFlushChecks++; // 변경 감지만 하고 내보낼 것이 없었다.
+        }
+    }
+
+    Integrator integrator() {
+        return new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                                  SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+                listeners.appendListeners(EventType.FLUSH, FlushCountingListener.this);
+                listeners.appendListeners(EventType.AUTO_FLUSH, FlushCountingListener.this);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+    }
+
+    private FlushCounts counts(SessionImplementor session) {
+        FlushCounts found = counts.get(session);
+        if (found != null) {
+            return found;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        FlushCounts created = new FlushCounts(name != null ? name : TransactionFrame.UNNAMED);
+        counts.put(session, created);
+        // 커밋 때의 flush 까지 센 뒤에 기록한다.
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> {
+            counts.remove(session);
+            registry.recordFlushes(created.name, created.flushes, created.autoFlushes, created.autoFlushChecks);
+        });
+        return created;
+    }
+
+    private static final class FlushCounts {
+
+        private final String name;
+        private int flushes;
+        private int autoFlushes;
+        private int autoFlushChecks;
+
+        private FlushCounts(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hello.springtx.tx.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+// 나노초 단위 지연 시간 히스토그램, 유효 숫자 3자리 (HdrHistogram)
+// 기록은 락 없이 하고, 조회할 때만 복사본을 만든다.
+public class LatencyHistogram {
+
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(3);
+
+    public void record(long nanos) {
+        histogram.recordValue(Math.max(0, nanos));
+    }
+
+    public LatencySnapshot snapshot() {
+        Histogram copy = histogram.copy();
+        return new LatencySnapshot(copy.getTotalCount(),
+                copy.getValueAtPercentile(50),
+                copy.getValueAtPercentile(99),
+                copy.getValueAtPercentile(99.9),
+                copy.getMaxValue(),
+                copy.getTotalCount() == 0 ? 0 : (long) copy.getMean());
+    }
+
+    public void reset() {
+        histogram.reset();
+    }
+}
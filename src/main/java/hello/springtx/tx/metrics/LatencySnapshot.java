@@ -0,0 +1,27 @@
+package hello.springtx.tx.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 지연 시간 분포 (나노초)
+@Getter
+@RequiredArgsConstructor
+public class LatencySnapshot {
+
+    private final long count;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final long meanNanos;
+
+    @Override
+    public String toString() {
+        return "{count=" + count + ", p50=" + micros(p50Nanos) + "us, p99=" + micros(p99Nanos)
+                + "us, p999=" + micros(p999Nanos) + "us, max=" + micros(maxNanos) + "us}";
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+}
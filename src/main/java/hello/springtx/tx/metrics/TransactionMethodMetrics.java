@@ -0,0 +1,151 @@
+package hello.springtx.tx.metrics;
+
+import hello.springtx.tx.TransactionFrame;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 트랜잭션 매서드 하나(트랜잭션 이름 하나)의 측정값
+public class TransactionMethodMetrics {
+
+    // 예외 없이 끝난 호출
+    public static final String SUCCESS = "success";
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private volatile String propagation;
+
+    private final LongAdder begins = new LongAdder();
+    private final LongAdder newTransactions = new LongAdder();
+    private final LongAdder suspensions = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder flushedTransactions = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder autoFlushes = new LongAdder();
+    private final LongAdder autoFlushChecks = new LongAdder();
+
+    @Getter private final LatencyHistogram beginLatency = new LatencyHistogram();
+    @Getter private final LatencyHistogram commitLatency = new LatencyHistogram();
+    @Getter private final LatencyHistogram rollbackLatency = new LatencyHistogram();
+    // 새 물리 트랜잭션의 시작부터 종료까지
+    // 커넥션을 잡고 있던 시간과는 다르다. 커넥션을 늦게 꺼내면(datasource.lazy-connection) 더 짧다. (ConnectionHoldTimeRecorder)
+    @Getter private final LatencyHistogram transactionDuration = new LatencyHistogram();
+
+    TransactionMethodMetrics(String name) {
+        this.name = name;
+    }
+
+    void begin(TransactionFrame frame) {
+        propagation = frame.getPropagationName();
+        begins.increment();
+        if (frame.isNewTransaction()) {
+            newTransactions.increment();
+        }
+        if (frame.isSuspending()) {
+            suspensions.increment();
+        }
+        beginLatency.record(frame.getBeginNanos());
+    }
+
+    void commit(TransactionFrame frame, long nanos) {
+        commits.increment();
+        commitLatency.record(nanos);
+        recordDuration(frame);
+    }
+
+    void rollback(TransactionFrame frame, long nanos) {
+        rollbacks.increment();
+        rollbackLatency.record(nanos);
+        recordDuration(frame);
+    }
+
+    void outcome(String type) {
+        outcomes.computeIfAbsent(type, key -> new LongAdder()).increment();
+    }
+
+    void flushes(int flushCount, int autoFlushCount, int autoFlushCheckCount) {
+        flushedTransactions.increment();
+        flushes.add(flushCount);
+        autoFlushes.add(autoFlushCount);
+        autoFlushChecks.add(autoFlushCheckCount);
+    }
+
+    private void recordDuration(TransactionFrame frame) {
+        if (frame.isNewTransaction()) {
+            transactionDuration.record(System.nanoTime() - frame.getStartNanos());
+        }
+    }
+
+    public long getBeginCount() {
+        return begins.sum();
+    }
+
+    public long getNewTransactionCount() {
+        return newTransactions.sum();
+    }
+
+    // 기존 트랜잭션에 참여한 횟수
+    public long getJoinedCount() {
+        return getBeginCount() - getNewTransactionCount();
+    }
+
+    public long getSuspensionCount() {
+        return suspensions.sum();
+    }
+
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    public long getRollbackCount() {
+        return rollbacks.sum();
+    }
+
+    // flush 횟수를 기록한 물리 트랜잭션 수, 트랜잭션당 flush 횟수는 아래 값들을 이 값으로 나눈다.
+    public long getFlushedTransactionCount() {
+        return flushedTransactions.sum();
+    }
+
+    // em.flush() 와 커밋 때의 flush
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    // 쿼리 전에 실제로 내보낸 AUTO flush
+    public long getAutoFlushCount() {
+        return autoFlushes.sum();
+    }
+
+    // 쿼리 전에 전체 변경 감지만 하고 내보낼 것이 없었던 AUTO flush
+    public long getAutoFlushCheckCount() {
+        return autoFlushChecks.sum();
+    }
+
+    // 결과별 호출 수, 키는 SUCCESS 또는 예외 클래스 이름
+    public Map<String, Long> getOutcomes() {
+        Map<String, Long> result = new TreeMap<>();
+        outcomes.forEach((type, count) -> result.put(type, count.sum()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return name + "{propagation=" + propagation + ", begins=" + getBeginCount()
+                + ", new=" + getNewTransactionCount() + ", joined=" + getJoinedCount()
+                + ", suspensions=" + getSuspensionCount() + ", commits=" + getCommitCount()
+                + ", rollbacks=" + getRollbackCount() + ", outcomes=" + getOutcomes()
+                + ", flushes=" + getFlushCount() + ", autoFlushes=" + getAutoFlushCount()
+                + ", autoFlushChecks=" + getAutoFlushCheckCount() + " in " + getFlushedTransactionCount() + " tx"
+                + ", begin=" + beginLatency.snapshot() + ", commit=" + commitLatency.snapshot()
+                + ", rollback=" + rollbackLatency.snapshot() + ", duration=" + transactionDuration.snapshot() + "}";
+    }
+}
@@ -0,0 +1,41 @@
+package hello.springtx.tx.metrics;
+
+import hello.springtx.tx.TransactionAdvisorOrder;
+import hello.springtx.tx.TransactionalMethodPointcut;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+// TRACE/DEBUG 로그 대신 항상 켜 둘 수 있는 트랜잭션 측정, tx.metrics.enabled=false 로 끈다.
+@Configuration
+@ConditionalOnProperty(prefix = "tx.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionMetricsConfig {
+
+    @Bean
+    public TransactionMetricsRegistry transactionMetricsRegistry() {
+        return new TransactionMetricsRegistry();
+    }
+
+    @Bean
+    public Advisor transactionMetricsAdvisor(TransactionMetricsRegistry transactionMetricsRegistry) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new TransactionalMethodPointcut(),
+                new TransactionMetricsInterceptor(transactionMetricsRegistry));
+        advisor.setOrder(TransactionAdvisorOrder.METRICS);
+        return advisor;
+    }
+
+    // Hibernate 이벤트 리스너는 세션 팩토리를 만들 때 Integrator 로 붙인다.
+    @Bean
+    public HibernatePropertiesCustomizer flushCountingCustomizer(TransactionMetricsRegistry transactionMetricsRegistry) {
+        FlushCountingListener listener = new FlushCountingListener(transactionMetricsRegistry);
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> Collections.singletonList(listener.integrator()));
+    }
+}
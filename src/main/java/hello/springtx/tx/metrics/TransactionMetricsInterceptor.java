@@ -0,0 +1,41 @@
+package hello.springtx.tx.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// @Transactional 매서드가 어떤 예외로 끝났는지 센다.
+// 트랜잭션 이름과 같은 규칙(대상 클래스 이름.매서드 이름)으로 기록한다.
+public class TransactionMetricsInterceptor implements MethodInterceptor {
+
+    private final TransactionMetricsRegistry registry;
+    private final ConcurrentMap<MethodClassKey, String> names = new ConcurrentHashMap<>();
+
+    public TransactionMetricsInterceptor(TransactionMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String name = name(invocation);
+        try {
+            Object result = invocation.proceed();
+            registry.recordOutcome(name, null);
+            return result;
+        } catch (Throwable ex) {
+            registry.recordOutcome(name, ex);
+            throw ex;
+        }
+    }
+
+    private String name(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        return names.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> ClassUtils.getQualifiedMethodName(invocation.getMethod(), targetClass));
+    }
+}
@@ -0,0 +1,62 @@
+package hello.springtx.tx.metrics;
+
+import hello.springtx.tx.TransactionFrame;
+import hello.springtx.tx.TransactionLifecycleListener;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 트랜잭션 이름(@Transactional 이면 "패키지.클래스.매서드")별 측정값 저장소
+ * 시작/커밋/롤백 시간은 트랜잭션 매니저에서, 예외 종류는 TransactionMetricsInterceptor 에서,
+ * flush 횟수는 FlushCountingListener 에서 받는다.
+ */
+public class TransactionMetricsRegistry implements TransactionLifecycleListener {
+
+    private final ConcurrentMap<String, TransactionMethodMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterBegin(TransactionFrame frame) {
+        metrics(frame.getName()).begin(frame);
+    }
+
+    @Override
+    public void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+        metrics(frame.getName()).commit(frame, commitNanos);
+    }
+
+    @Override
+    public void afterRollback(TransactionFrame frame, long rollbackNanos) {
+        metrics(frame.getName()).rollback(frame, rollbackNanos);
+    }
+
+    public void recordOutcome(String name, @Nullable Throwable ex) {
+        metrics(name).outcome(ex == null ? TransactionMethodMetrics.SUCCESS : ex.getClass().getName());
+    }
+
+    // 물리 트랜잭션 하나가 끝날 때 그 트랜잭션의 flush 횟수 (FlushCountingListener)
+    public void recordFlushes(String name, int flushes, int autoFlushes, int autoFlushChecks) {
+        metrics(name).flushes(flushes, autoFlushes, autoFlushChecks);
+    }
+
+    @Nullable
+    public TransactionMethodMetrics get(String name) {
+        return metrics.get(name);
+    }
+
+    public Collection<TransactionMethodMetrics> getAll() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    private TransactionMethodMetrics metrics(String name) {
+        TransactionMethodMetrics found = metrics.get(name);
+        return found != null ? found : metrics.computeIfAbsent(name, TransactionMethodMetrics::new);
+    }
+}
@@ -0,0 +1,10 @@
+package hello.springtx.tx.parallel;
+
+import java.util.List;
+
+// FAIL_FAST 에서 다른 파티션이 실패했을 때, 이미 커밋된 파티션을 되돌리는 작업 (새 트랜잭션에서 호출된다.)
+@FunctionalInterface
+public interface CompensationCallback<T, R> {
+
+    void compensate(List<T> partition, R result);
+}
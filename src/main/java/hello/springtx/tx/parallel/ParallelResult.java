@@ -0,0 +1,38 @@
+package hello.springtx.tx.parallel;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// 병렬 실행 전체 결과, 파티션 순서대로
+@Getter
+@RequiredArgsConstructor
+public class ParallelResult<T, R> {
+
+    private final ParallelTransactionTemplate.Mode mode;
+    private final List<PartitionOutcome<T, R>> outcomes;
+    private final long elapsedNanos;
+
+    public boolean isSuccess() {
+        return outcomes.stream().allMatch(outcome -> outcome.getStatus() == PartitionOutcome.Status.COMMITTED);
+    }
+
+    public long count(PartitionOutcome.Status status) {
+        return outcomes.stream().filter(outcome -> outcome.getStatus() == status).count();
+    }
+
+    // 커밋된 파티션의 결과
+    public List<R> getResults() {
+        return outcomes.stream()
+                .filter(outcome -> outcome.getStatus() == PartitionOutcome.Status.COMMITTED)
+                .map(PartitionOutcome::getResult)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "{mode=" + mode + ", elapsed=" + elapsedNanos / 1_000_000 + "ms, outcomes=" + outcomes + "}";
+    }
+}
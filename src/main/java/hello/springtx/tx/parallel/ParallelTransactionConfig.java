@@ -0,0 +1,26 @@
+package hello.springtx.tx.parallel;
+
+import hello.springtx.datasource.ConnectionPools;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ParallelTransactionConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ParallelTransactionTemplate parallelTransactionTemplate(PlatformTransactionManager transactionManager,
+                                                                   DataSource dataSource,
+                                                                   ParallelTransactionProperties properties) {
+        return new ParallelTransactionTemplate(transactionManager, resolveThreads(dataSource, properties));
+    }
+
+    private static int resolveThreads(DataSource dataSource, ParallelTransactionProperties properties) {
+        if (properties.getThreads() > 0) {
+            return properties.getThreads();
+        }
+        return Math.max(1, ConnectionPools.maximumPoolSize(dataSource, "tx.parallel.threads") - 1);
+    }
+}
@@ -0,0 +1,16 @@
+package hello.springtx.tx.parallel;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tx.parallel")
+public class ParallelTransactionProperties {
+
+    // 파티션을 실행하는 스레드 수, 0 이면 커넥션 풀(Hikari) 크기 - 1 (요청 처리용으로 하나는 남긴다.)
+    private int threads = 0;
+}
@@ -0,0 +1,154 @@
+package hello.springtx.tx.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 작업을 파티션으로 나눠서 여러 스레드에서 파티션마다 트랜잭션 하나로 실행한다.
+ * 스프링 트랜잭션은 스레드에 묶이므로 한 트랜잭션을 여러 스레드가 나눠 쓸 수 없다. 대신 파티션별로 커밋한다.
+ * 스레드 수는 커넥션 풀 크기를 넘지 않게 둔다. (파티션 하나가 커넥션 하나)
+ *
+ * FAIL_FAST  : 한 파티션이 실패하면 아직 시작 안 한 파티션은 건너뛰고, 커밋된 파티션은 보상 작업으로 되돌린다.
+ * BEST_EFFORT: 모든 파티션을 실행하고 파티션별 결과를 돌려준다.
+ *
+ * 호출한 쪽의 트랜잭션에는 참여하지 않는다. 파티션은 호출한 쪽이 아직 커밋하지 않은 데이터를 보지 못한다.
+ */
+@Slf4j
+public class ParallelTransactionTemplate {
+
+    public enum Mode {
+        FAIL_FAST,
+        BEST_EFFORT
+    }
+
+    private final TransactionTemplate template;
+    private final ExecutorService executor;
+    private final int threads;
+
+    public ParallelTransactionTemplate(PlatformTransactionManager transactionManager, int threads) {
+        this.template = new TransactionTemplate(transactionManager);
+        // 작업 스레드에는 트랜잭션이 없지만, 혹시 남아 있어도 참여하지 않도록 항상 새로 연다.
+        this.template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.threads = threads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "parallel-tx-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T, R> ParallelResult<T, R> execute(List<T> items, int partitionSize, Mode mode, PartitionCallback<T, R> callback) {
+        return execute(items, partitionSize, mode, callback, null);
+    }
+
+    public <T, R> ParallelResult<T, R> execute(List<T> items, int partitionSize, Mode mode,
+                                               PartitionCallback<T, R> callback,
+                                               @Nullable CompensationCallback<T, R> compensation) {
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("partitionSize 는 1 이상이어야 합니다.");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("트랜잭션 안에서 병렬 실행, 파티션은 바깥 트랜잭션과 따로 커밋된다.");
+        }
+        long start = System.nanoTime();
+
+        List<List<T>> partitions = partition(items, partitionSize);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<PartitionOutcome<T, R>>> futures = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            int index = i;
+            List<T> partition = partitions.get(i);
+            futures.add(executor.submit(() -> runPartition(index, partition, mode, callback, failed)));
+        }
+
+        List<PartitionOutcome<T, R>> outcomes = new ArrayList<>(partitions.size());
+        for (Future<PartitionOutcome<T, R>> future : futures) {
+            outcomes.add(await(future));
+        }
+
+        if (mode == Mode.FAIL_FAST && failed.get() && compensation != null) {
+            compensate(outcomes, compensation);
+        }
+
+        ParallelResult<T, R> result = new ParallelResult<>(mode, outcomes, System.nanoTime() - start);
+        log.info("병렬 트랜잭션 실행 partitions={}, committed={}, rolledBack={}, skipped={}, compensated={}, elapsed={}ms",
+                partitions.size(), result.count(PartitionOutcome.Status.COMMITTED),
+                result.count(PartitionOutcome.Status.ROLLED_BACK), result.count(PartitionOutcome.Status.SKIPPED),
+                result.count(PartitionOutcome.Status.COMPENSATED), result.getElapsedNanos() / 1_000_000);
+        return result;
+    }
+
+    private <T, R> PartitionOutcome<T, R> runPartition(int index, List<T> partition, Mode mode,
+                                                       PartitionCallback<T, R> callback, AtomicBoolean failed) {
+        if (mode == Mode.FAIL_FAST && failed.get()) {
+            return new PartitionOutcome<>(index, partition, PartitionOutcome.Status.SKIPPED, null, null);
+        }
+        try {
+            R result = template.execute(status -> callback.doInPartition(partition, status));
+            return new PartitionOutcome<>(index, partition, PartitionOutcome.Status.COMMITTED, result, null);
+        } catch (RuntimeException | Error e) {
+            // Error(AssertionError 등)도 롤백된 파티션으로 돌려준다. 그래야 FAIL_FAST 가 멈추고 보상 작업이 돈다.
+            failed.set(true);
+            log.info("파티션 롤백 partition#{}, ex={}", index, e.toString());
+            return new PartitionOutcome<>(index, partition, PartitionOutcome.Status.ROLLED_BACK, null, e);
+        }
+    }
+
+    private <T, R> void compensate(List<PartitionOutcome<T, R>> outcomes, CompensationCallback<T, R> compensation) {
+        for (int i = 0; i < outcomes.size(); i++) {
+            PartitionOutcome<T, R> outcome = outcomes.get(i);
+            if (outcome.getStatus() != PartitionOutcome.Status.COMMITTED) {
+                continue;
+            }
+            try {
+                template.executeWithoutResult(status -> compensation.compensate(outcome.getItems(), outcome.getResult()));
+                outcomes.set(i, outcome.withStatus(PartitionOutcome.Status.COMPENSATED, null));
+            } catch (RuntimeException e) {
+                log.warn("보상 작업 실패 partition#{}, ex={}", outcome.getIndex(), e.toString());
+                outcomes.set(i, outcome.withStatus(PartitionOutcome.Status.COMPENSATION_FAILED, e));
+            }
+        }
+    }
+
+    private static <T, R> PartitionOutcome<T, R> await(Future<PartitionOutcome<T, R>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("병렬 실행 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            // runPartition 은 런타임 예외와 Error 를 결과로 바꾸므로 여기까지 오지 않는다.
+            throw new IllegalStateException("파티션 실행 실패", e.getCause());
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int partitionSize) {
+        List<List<T>> partitions = new ArrayList<>((items.size() + partitionSize - 1) / partitionSize);
+        for (int from = 0; from < items.size(); from += partitionSize) {
+            partitions.add(items.subList(from, Math.min(items.size(), from + partitionSize)));
+        }
+        return partitions;
+    }
+}
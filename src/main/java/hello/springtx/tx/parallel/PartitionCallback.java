@@ -0,0 +1,12 @@
+package hello.springtx.tx.parallel;
+
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+
+// 파티션 하나의 작업, 파티션마다 자기 스레드의 자기 트랜잭션 안에서 호출된다.
+@FunctionalInterface
+public interface PartitionCallback<T, R> {
+
+    R doInPartition(List<T> partition, TransactionStatus status);
+}
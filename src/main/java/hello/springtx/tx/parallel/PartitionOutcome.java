@@ -0,0 +1,37 @@
+package hello.springtx.tx.parallel;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+// 파티션 하나의 결과
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class PartitionOutcome<T, R> {
+
+    public enum Status {
+        COMMITTED,           // 커밋
+        ROLLED_BACK,         // 예외로 롤백
+        SKIPPED,             // FAIL_FAST 에서 다른 파티션이 먼저 실패해서 시작하지 않음
+        COMPENSATED,         // 커밋했지만 다른 파티션이 실패해서 보상 작업으로 되돌림
+        COMPENSATION_FAILED  // 보상 작업도 실패, 직접 확인해야 한다.
+    }
+
+    private final int index;
+    private final List<T> items;
+    private final Status status;
+    private final R result;
+    private final Throwable failure;
+
+    PartitionOutcome<T, R> withStatus(Status status, Throwable failure) {
+        return new PartitionOutcome<>(index, items, status, result, failure);
+    }
+
+    @Override
+    public String toString() {
+        return "partition#" + index + "{size=" + items.size() + ", status=" + status
+                + (failure != null ? ", failure=" + failure : "") + "}";
+    }
+}
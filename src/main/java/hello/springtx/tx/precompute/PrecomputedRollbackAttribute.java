@@ -0,0 +1,54 @@
+package hello.springtx.tx.precompute;
+
+import org.springframework.transaction.interceptor.DelegatingTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * rollbackOn 결과를 예외 타입별로 미리 계산해 둔 트랜잭션 속성
+ * RuleBasedTransactionAttribute 는 호출마다 롤백 규칙(rollbackFor 등)과 예외 클래스 계층을 훑는다.
+ * 매서드가 던질 수 있는 예외(throws 절, RuntimeException, Error, rollbackFor 에 적은 타입)는 시작할 때 계산해 두고,
+ * 표에 없는 타입만 원래 속성에 물어본다.
+ */
+class PrecomputedRollbackAttribute extends DelegatingTransactionAttribute {
+
+    private final Map<Class<?>, Boolean> rollbackTable;
+
+    PrecomputedRollbackAttribute(TransactionAttribute target, Iterable<Class<? extends Throwable>> knownExceptions) {
+        super(target);
+        Map<Class<?>, Boolean> table = new HashMap<>();
+        for (Class<? extends Throwable> exceptionType : knownExceptions) {
+            Throwable sample = sample(exceptionType);
+            if (sample != null) {
+                table.put(exceptionType, target.rollbackOn(sample));
+            }
+        }
+        this.rollbackTable = Collections.unmodifiableMap(table);
+    }
+
+    @Override
+    public boolean rollbackOn(Throwable ex) {
+        Boolean rollback = rollbackTable.get(ex.getClass());
+        return rollback != null ? rollback : super.rollbackOn(ex);
+    }
+
+    int size() {
+        return rollbackTable.size();
+    }
+
+    // 롤백 규칙은 예외 클래스만 보므로 인스턴스 내용은 상관없다. 생성할 수 없는 타입은 건너뛴다.
+    private static Throwable sample(Class<? extends Throwable> exceptionType) {
+        try {
+            return exceptionType.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            try {
+                return exceptionType.getDeclaredConstructor(String.class).newInstance("precompute");
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                return null;
+            }
+        }
+    }
+}
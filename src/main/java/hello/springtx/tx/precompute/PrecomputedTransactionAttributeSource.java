@@ -0,0 +1,111 @@
+package hello.springtx.tx.precompute;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.MethodClassKey;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.RollbackRuleAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 시작할 때 @Transactional 빈의 트랜잭션 속성을 미리 찾아서 바뀌지 않는 표로 만든다.
+ * 요청 경로에서는 표만 조회하고, 표에 없는 매서드(시작 뒤에 만든 빈 등)만 원래 속성 소스에 물어본다.
+ */
+@Slf4j
+public class PrecomputedTransactionAttributeSource implements TransactionAttributeSource {
+
+    private final TransactionAttributeSource delegate;
+    private volatile Map<MethodClassKey, TransactionAttribute> table = Collections.emptyMap();
+
+    public PrecomputedTransactionAttributeSource(TransactionAttributeSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    @Nullable
+    public TransactionAttribute getTransactionAttribute(Method method, @Nullable Class<?> targetClass) {
+        TransactionAttribute attribute = table.get(new MethodClassKey(method, targetClass));
+        return attribute != null ? attribute : delegate.getTransactionAttribute(method, targetClass);
+    }
+
+    // 클래스들의 트랜잭션 매서드를 표에 넣는다. 표는 통째로 바꿔서 읽는 쪽은 락 없이 본다.
+    public synchronized int precompute(Iterable<Class<?>> targetClasses) {
+        Map<MethodClassKey, TransactionAttribute> next = new HashMap<>(table);
+        int rollbackEntries = 0;
+        for (Class<?> targetClass : targetClasses) {
+            if (!delegate.isCandidateClass(targetClass)) {
+                continue;
+            }
+            for (Method method : candidateMethods(targetClass)) {
+                TransactionAttribute attribute = delegate.getTransactionAttribute(method, targetClass);
+                if (attribute == null) {
+                    continue;
+                }
+                PrecomputedRollbackAttribute precomputed = new PrecomputedRollbackAttribute(attribute, knownExceptions(method, attribute));
+                rollbackEntries += precomputed.size();
+                next.put(new MethodClassKey(method, targetClass), precomputed);
+            }
+        }
+        table = Collections.unmodifiableMap(next);
+        log.info("트랜잭션 속성 미리 계산 methods={}, rollbackEntries={}", next.size(), rollbackEntries);
+        return next.size();
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    // 프록시가 넘겨주는 Method 는 대상 클래스나 상위 클래스, 인터페이스에 선언된 것이다.
+    private static Set<Method> candidateMethods(Class<?> targetClass) {
+        Set<Method> methods = new LinkedHashSet<>();
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (!Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers())) {
+                methods.add(method);
+            }
+        }
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            Collections.addAll(methods, ifc.getMethods());
+        }
+        return methods;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Class<? extends Throwable>> knownExceptions(Method method, TransactionAttribute attribute) {
+        Set<Class<? extends Throwable>> exceptions = new LinkedHashSet<>();
+        exceptions.add(RuntimeException.class);
+        exceptions.add(Error.class);
+        for (Class<?> exceptionType : method.getExceptionTypes()) {
+            exceptions.add((Class<? extends Throwable>) exceptionType);
+        }
+        if (attribute instanceof RuleBasedTransactionAttribute) {
+            for (RollbackRuleAttribute rule : ((RuleBasedTransactionAttribute) attribute).getRollbackRules()) {
+                ClassLoader classLoader = method.getDeclaringClass().getClassLoader();
+                // rollbackForClassName 처럼 이름 일부만 적은 규칙은 클래스로 바꿀 수 없으니 건너뛴다.
+                if (!ClassUtils.isPresent(rule.getExceptionName(), classLoader)) {
+                    continue;
+                }
+                Class<?> exceptionType = ClassUtils.resolveClassName(rule.getExceptionName(), classLoader);
+                if (Throwable.class.isAssignableFrom(exceptionType)) {
+                    exceptions.add((Class<? extends Throwable>) exceptionType);
+                }
+            }
+        }
+        return exceptions;
+    }
+}
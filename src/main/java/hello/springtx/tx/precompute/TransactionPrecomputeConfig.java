@@ -0,0 +1,71 @@
+package hello.springtx.tx.precompute;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 첫 요청에서 하던 트랜잭션 속성 해석(@Transactional 찾기, 롤백 규칙 계산)을 시작할 때 끝낸다.
+ * 1. 후처리기가 TransactionInterceptor(AspectJ 모드면 AnnotationTransactionAspect) 의 속성 소스를 PrecomputedTransactionAttributeSource 로 바꾼다.
+ * 2. 모든 싱글톤이 만들어진 뒤(준비 완료 전) 빈 클래스를 훑어서 표를 채운다.
+ * tx.precompute.enabled=false 면 원래대로 요청 때 해석한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tx.precompute", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPrecomputeConfig {
+
+    @Bean
+    public static PrecomputedTransactionAttributeSource precomputedTransactionAttributeSource(
+            Environment environment, ConfigurableListableBeanFactory beanFactory) {
+        // AspectJ 모드는 public 이 아닌 매서드에도 @Transactional 을 적용한다. (AnnotationTransactionAspect 와 같게)
+        boolean publicMethodsOnly = !"aspectj".equalsIgnoreCase(environment.getProperty("tx.advice-mode", "proxy"));
+        AnnotationTransactionAttributeSource delegate = new AnnotationTransactionAttributeSource(publicMethodsOnly);
+        // 빈이 아니라서 EmbeddedValueResolverAware 콜백을 받지 못한다. 직접 넣어야 timeoutString, label, 한정자의 ${...} 가 풀린다.
+        delegate.setEmbeddedValueResolver(new EmbeddedValueResolver(beanFactory));
+        return new PrecomputedTransactionAttributeSource(delegate);
+    }
+
+    @Bean
+    public static BeanPostProcessor precomputedTransactionAttributeSourcePostProcessor(
+            PrecomputedTransactionAttributeSource attributeSource) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // 프록시 모드는 TransactionInterceptor, AspectJ 모드는 AnnotationTransactionAspect
+                if (bean instanceof TransactionAspectSupport) {
+                    ((TransactionAspectSupport) bean).setTransactionAttributeSource(attributeSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SmartInitializingSingleton transactionAttributePrecomputer(ListableBeanFactory beanFactory,
+                                                                      PrecomputedTransactionAttributeSource attributeSource) {
+        return () -> {
+            Set<Class<?>> targetClasses = new LinkedHashSet<>();
+            for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+                Class<?> type = beanFactory.getType(beanName, false);
+                // JDK 동적 프록시는 인터페이스만 보이니 건너뛴다. (CGLIB 프록시는 원래 클래스로 바꾼다.)
+                if (type != null && !Proxy.isProxyClass(type)) {
+                    targetClasses.add(ClassUtils.getUserClass(type));
+                }
+            }
+            attributeSource.precompute(targetClasses);
+        };
+    }
+}
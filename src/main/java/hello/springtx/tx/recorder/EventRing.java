@@ -0,0 +1,69 @@
+package hello.springtx.tx.recorder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스레드 하나 전용 이벤트 링 버퍼, 슬롯은 처음에 모두 만들어 두고 덮어쓴다.
+ * 쓰기는 소유 스레드 혼자 하므로 락이 없다. 다른 스레드가 덤프할 때는
+ * 쓰는 중인 슬롯이 섞여 보일 수 있다. (최선 노력)
+ */
+class EventRing {
+
+    private final WeakReference<Thread> owner;
+    private final String threadName;
+    private final int mask;
+
+    private final long[] timestamps;
+    private final byte[] types;
+    private final String[] names;
+    private final int[] depths;
+
+    // 기록한 이벤트 수, 슬롯을 채운 뒤 release 저장으로 공개한다.
+    private final AtomicLong published = new AtomicLong();
+    private long sequence;
+
+    EventRing(Thread owner, int capacity) {
+        this.owner = new WeakReference<>(owner);
+        this.threadName = owner.getName();
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.timestamps = new long[size];
+        this.types = new byte[size];
+        this.names = new String[size];
+        this.depths = new int[size];
+    }
+
+    void record(TransactionEventType type, String name, int depth) {
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = System.nanoTime();
+        types[slot] = (byte) type.ordinal();
+        names[slot] = name;
+        depths[slot] = depth;
+        published.lazySet(++sequence);
+    }
+
+    List<TransactionEvent> snapshot() {
+        long end = published.get();
+        long start = Math.max(0, end - (mask + 1));
+        TransactionEventType[] values = TransactionEventType.values();
+        List<TransactionEvent> events = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            int slot = (int) (seq & mask);
+            events.add(new TransactionEvent(threadName, seq, timestamps[slot], values[types[slot]], names[slot], depths[slot]));
+        }
+        return events;
+    }
+
+    void clear() {
+        sequence = 0;
+        published.set(0);
+    }
+
+    boolean isOwnerAlive() {
+        Thread thread = owner.get();
+        return thread != null && thread.isAlive();
+    }
+}
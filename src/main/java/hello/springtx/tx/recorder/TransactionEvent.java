@@ -0,0 +1,23 @@
+package hello.springtx.tx.recorder;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 덤프할 때만 만드는 이벤트 사본
+@Getter
+@RequiredArgsConstructor
+public class TransactionEvent {
+
+    private final String threadName;
+    private final long sequence;
+    private final long timestampNanos;
+    private final TransactionEventType type;
+    private final String transactionName;
+    private final int depth;
+
+    @Override
+    public String toString() {
+        return "[" + threadName + " #" + sequence + " t=" + timestampNanos + "] "
+                + "  ".repeat(Math.max(0, depth)) + type + " " + transactionName;
+    }
+}
@@ -0,0 +1,11 @@
+package hello.springtx.tx.recorder;
+
+public enum TransactionEventType {
+    BEGIN,              // 새 물리 트랜잭션 시작
+    JOIN,               // 기존 트랜잭션에 참여
+    SUSPEND,            // REQUIRES_NEW 등으로 기존 트랜잭션 보류
+    RESUME,             // 보류했던 트랜잭션 재개
+    MARK_ROLLBACK_ONLY, // 참여한 트랜잭션을 롤백해서 전체 트랜잭션을 rollback-only 로 표시
+    COMMIT,
+    ROLLBACK
+}
@@ -0,0 +1,107 @@
+package hello.springtx.tx.recorder;
+
+import hello.springtx.tx.TransactionFrame;
+import hello.springtx.tx.TransactionLifecycleListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.UnexpectedRollbackException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * 항상 켜 두는 트랜잭션 이벤트 기록기 (TRACE 로그 대신)
+ * 문자열을 만들지 않고 스레드별 링 버퍼에 이벤트 종류, 트랜잭션 이름 참조, 시각만 남긴다.
+ * 필요할 때 dump() 하거나, UnexpectedRollbackException 이 나면 그 스레드의 최근 이벤트를 로그로 남긴다.
+ */
+@Slf4j
+public class TransactionFlightRecorder implements TransactionLifecycleListener {
+
+    private final int capacity;
+    private final boolean dumpOnUnexpectedRollback;
+
+    private final Queue<EventRing> rings = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<EventRing> currentRing = ThreadLocal.withInitial(this::newRing);
+
+    public TransactionFlightRecorder(int capacity, boolean dumpOnUnexpectedRollback) {
+        this.capacity = capacity;
+        this.dumpOnUnexpectedRollback = dumpOnUnexpectedRollback;
+    }
+
+    @Override
+    public void afterBegin(TransactionFrame frame) {
+        EventRing ring = currentRing.get();
+        if (frame.isSuspending()) {
+            ring.record(TransactionEventType.SUSPEND, frame.getName(), frame.getDepth());
+        }
+        ring.record(frame.isNewTransaction() ? TransactionEventType.BEGIN : TransactionEventType.JOIN,
+                frame.getName(), frame.getDepth());
+    }
+
+    @Override
+    public void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+        complete(frame, TransactionEventType.COMMIT);
+    }
+
+    @Override
+    public void afterRollback(TransactionFrame frame, long rollbackNanos) {
+        // 참여한 트랜잭션의 롤백은 물리 롤백이 아니라 rollback-only 표시다.
+        complete(frame, frame.isNewTransaction() ? TransactionEventType.ROLLBACK : TransactionEventType.MARK_ROLLBACK_ONLY);
+    }
+
+    @Override
+    public void onUnexpectedRollback(TransactionFrame frame, UnexpectedRollbackException ex) {
+        if (dumpOnUnexpectedRollback) {
+            log.warn("UnexpectedRollbackException transaction={}, 최근 트랜잭션 이벤트:\n{}", frame.getName(), format(dump()));
+        }
+    }
+
+    private void complete(TransactionFrame frame, TransactionEventType type) {
+        EventRing ring = currentRing.get();
+        ring.record(type, frame.getName(), frame.getDepth());
+        if (frame.isSuspending()) {
+            ring.record(TransactionEventType.RESUME, frame.getName(), frame.getDepth());
+        }
+    }
+
+    // 현재 스레드의 최근 이벤트, 오래된 것부터
+    public List<TransactionEvent> dump() {
+        return currentRing.get().snapshot();
+    }
+
+    // 모든 스레드의 최근 이벤트, 끝난 스레드의 버퍼는 이때와 새 버퍼를 만들 때 정리한다.
+    public List<TransactionEvent> dumpAll() {
+        List<TransactionEvent> events = new ArrayList<>();
+        for (EventRing ring : rings) {
+            events.addAll(ring.snapshot());
+            if (!ring.isOwnerAlive()) {
+                rings.remove(ring);
+            }
+        }
+        return events;
+    }
+
+    public void clear() {
+        currentRing.get().clear();
+    }
+
+    // 지금 들고 있는 스레드별 버퍼 수
+    public int getRingCount() {
+        return rings.size();
+    }
+
+    public static String format(List<TransactionEvent> events) {
+        return events.stream().map(TransactionEvent::toString).collect(Collectors.joining("\n"));
+    }
+
+    // 스레드 풀이 늘었다 줄거나 매번 새 executor 를 만들면 끝난 스레드의 버퍼가 계속 쌓인다.
+    // 새 스레드가 처음 기록할 때 끝난 스레드의 버퍼를 버린다. (dumpAll 을 부르지 않아도 스레드 수만큼만 남는다.)
+    private EventRing newRing() {
+        rings.removeIf(ring -> !ring.isOwnerAlive());
+        EventRing ring = new EventRing(Thread.currentThread(), capacity);
+        rings.add(ring);
+        return ring;
+    }
+}
@@ -0,0 +1,18 @@
+package hello.springtx.tx.recorder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "tx.recorder", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionRecorderConfig {
+
+    @Bean
+    public TransactionFlightRecorder transactionFlightRecorder(
+            @Value("${tx.recorder.capacity:1024}") int capacity,
+            @Value("${tx.recorder.dump-on-unexpected-rollback:true}") boolean dumpOnUnexpectedRollback) {
+        return new TransactionFlightRecorder(capacity, dumpOnUnexpectedRollback);
+    }
+}
@@ -0,0 +1,65 @@
+package hello.springtx.tx.retry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 재시도하기 전에 인자로 받은 새 엔티티를 다시 새 엔티티로 되돌린다.
+ * persist 가 채운 id 는 트랜잭션이 롤백되어도 엔티티에 남는다. 그대로 다시 저장하면 detached 엔티티로 취급된다.
+ * 첫 시도 전에 id 가 없던 엔티티 인자만 id 를 비운다. (필드 접근 id 만)
+ */
+class NewEntityArguments {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ConcurrentMap<Class<?>, Optional<Field>> idFields = new ConcurrentHashMap<>();
+
+    NewEntityArguments(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // 첫 시도 전에 호출한다. 실패한 시도 뒤에 실행할 되돌리기 작업을 돌려준다.
+    List<Runnable> capture(Object[] arguments) {
+        EntityManagerFactory emf = arguments.length == 0 ? null : entityManagerFactory.getIfAvailable();
+        if (emf == null) {
+            return Collections.emptyList();
+        }
+        List<Runnable> resets = new ArrayList<>();
+        for (Object argument : arguments) {
+            if (argument == null || AnnotationUtils.findAnnotation(argument.getClass(), Entity.class) == null) {
+                continue;
+            }
+            Optional<Field> idField = idFields.computeIfAbsent(argument.getClass(), type -> idField(emf, type));
+            if (idField.isPresent() && emf.getPersistenceUnitUtil().getIdentifier(argument) == null) {
+                resets.add(() -> ReflectionUtils.setField(idField.get(), argument, null));
+            }
+        }
+        return resets;
+    }
+
+    private static Optional<Field> idField(EntityManagerFactory emf, Class<?> type) {
+        EntityType<?> entityType = emf.getMetamodel().entity(type);
+        if (!entityType.hasSingleIdAttribute()) {
+            return Optional.empty();
+        }
+        Member member = entityType.getId(entityType.getIdType().getJavaType()).getJavaMember();
+        if (!(member instanceof Field)) {
+            return Optional.empty();
+        }
+        Field field = (Field) member;
+        ReflectionUtils.makeAccessible(field);
+        return Optional.of(field);
+    }
+}
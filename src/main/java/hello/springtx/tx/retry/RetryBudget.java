@@ -0,0 +1,37 @@
+package hello.springtx.tx.retry;
+
+/**
+ * 매서드별 재시도 예산
+ * 호출마다 ratio 만큼 토큰이 쌓이고 재시도 한 번에 토큰 하나를 쓴다. (최대 maxTokens)
+ * 장애 상황에서 재시도가 부하를 몇 배로 불리지 않도록, 재시도는 호출 수의 ratio 비율 안에서만 허용한다.
+ */
+class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long max;
+    private long tokens;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.deposit = (long) (ratio * SCALE);
+        this.max = maxTokens * SCALE;
+        this.tokens = max;
+    }
+
+    synchronized void deposit() {
+        tokens = Math.min(max, tokens + deposit);
+    }
+
+    synchronized boolean tryWithdraw() {
+        if (tokens < SCALE) {
+            return false;
+        }
+        tokens -= SCALE;
+        return true;
+    }
+
+    synchronized double available() {
+        return (double) tokens / SCALE;
+    }
+}
@@ -0,0 +1,103 @@
+package hello.springtx.tx.retry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// 매서드 하나의 재시도 통계
+public class RetryStats {
+
+    private final String name;
+    private final RetryBudget budget;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetRejections = new LongAdder();
+    private final LongAdder nonRetryable = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    RetryStats(String name, RetryBudget budget) {
+        this.name = name;
+        this.budget = budget;
+    }
+
+    RetryBudget budget() {
+        return budget;
+    }
+
+    void call() {
+        calls.increment();
+    }
+
+    void retry() {
+        retries.increment();
+    }
+
+    void recovered() {
+        recovered.increment();
+    }
+
+    void exhausted() {
+        exhausted.increment();
+    }
+
+    void budgetRejected() {
+        budgetRejections.increment();
+    }
+
+    void nonRetryable() {
+        nonRetryable.increment();
+    }
+
+    void joined() {
+        joined.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    // 재시도해서 성공한 호출
+    public long getRecoveredCount() {
+        return recovered.sum();
+    }
+
+    // 최대 시도 횟수를 다 쓰고 실패한 호출
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    // 재시도 예산이 없어서 재시도하지 않은 호출
+    public long getBudgetRejectedCount() {
+        return budgetRejections.sum();
+    }
+
+    // 재시도 대상이 아닌 예외로 끝난 호출 (체크 예외, 일시적이지 않은 예외)
+    public long getNonRetryableCount() {
+        return nonRetryable.sum();
+    }
+
+    // 이미 트랜잭션 안이라서 재시도 없이 실행한 호출
+    public long getJoinedCount() {
+        return joined.sum();
+    }
+
+    public double getAvailableBudget() {
+        return budget.available();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{calls=" + getCallCount() + ", retries=" + getRetryCount() + ", recovered=" + getRecoveredCount()
+                + ", exhausted=" + getExhaustedCount() + ", budgetRejected=" + getBudgetRejectedCount()
+                + ", nonRetryable=" + getNonRetryableCount() + ", joined=" + getJoinedCount() + "}";
+    }
+}
@@ -0,0 +1,29 @@
+package hello.springtx.tx.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 락 타임아웃, 데드락 희생 같은 일시적인 실패면 트랜잭션을 처음부터 다시 실행한다.
+ * 트랜잭션 프록시 바깥에서 돌기 때문에 시도할 때마다 새 트랜잭션이다.
+ * 체크 예외(커밋되는 예외)와 일시적이지 않은 예외는 재시도하지 않는다.
+ * 이미 트랜잭션 안에서 호출되면 재시도하지 않는다. (바깥 트랜잭션이 재시도해야 한다.)
+ * 시도 전체가 한 트랜잭션으로 롤백되는 매서드에만 붙인다. REQUIRES_NEW 로 따로 커밋하는 부분이 있으면 재시도할 때마다 다시 커밋된다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryableTransaction {
+
+    // 첫 시도를 포함한 최대 시도 횟수
+    int maxAttempts() default 3;
+
+    // 첫 재시도 전 최대 대기 시간, 재시도마다 두 배씩 늘린다. (실제 대기는 0 ~ 이 값 사이 무작위)
+    long backoffMillis() default 20;
+
+    // 대기 시간 상한
+    long maxBackoffMillis() default 500;
+}
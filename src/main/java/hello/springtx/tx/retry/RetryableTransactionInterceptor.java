@@ -0,0 +1,151 @@
+package hello.springtx.tx.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @RetryableTransaction 매서드를 일시적인 실패에 한해서 다시 실행한다.
+ * 트랜잭션 어드바이저 바깥에 있어서 invocableClone().proceed() 를 할 때마다 트랜잭션을 새로 연다.
+ * 재시도 전에 인자로 받은 새 엔티티의 id 를 비운다. (NewEntityArguments)
+ */
+@Slf4j
+public class RetryableTransactionInterceptor implements MethodInterceptor {
+
+    private final TransientFailureClassifier classifier;
+    private final TransactionRetryProperties properties;
+    private final NewEntityArguments newEntityArguments;
+
+    private final ConcurrentMap<MethodClassKey, RetryPolicy> policies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RetryStats> stats = new ConcurrentHashMap<>();
+
+    public RetryableTransactionInterceptor(TransientFailureClassifier classifier, TransactionRetryProperties properties,
+                                           ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.classifier = classifier;
+        this.properties = properties;
+        this.newEntityArguments = new NewEntityArguments(entityManagerFactory);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RetryPolicy policy = policy(invocation);
+        RetryStats methodStats = policy.stats;
+        methodStats.call();
+        methodStats.budget().deposit();
+
+        // 바깥 트랜잭션에 참여하면 실패한 시도가 바깥 트랜잭션을 rollback-only 로 만든다. 재시도는 바깥에서 해야 한다.
+        if (TransactionSynchronizationManager.isActualTransactionActive() || !(invocation instanceof ProxyMethodInvocation)) {
+            methodStats.joined();
+            return invocation.proceed();
+        }
+
+        ProxyMethodInvocation proxyInvocation = (ProxyMethodInvocation) invocation;
+        List<Runnable> newEntityResets = newEntityArguments.capture(invocation.getArguments());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = proxyInvocation.invocableClone().proceed();
+                if (attempt > 1) {
+                    methodStats.recovered();
+                }
+                return result;
+            } catch (Throwable ex) {
+                if (!classifier.isTransient(ex)) {
+                    methodStats.nonRetryable();
+                    throw ex;
+                }
+                if (attempt >= policy.maxAttempts) {
+                    methodStats.exhausted();
+                    log.warn("재시도 횟수 초과 method={}, attempts={}, ex={}", methodStats.getName(), attempt, ex.toString());
+                    throw ex;
+                }
+                if (!methodStats.budget().tryWithdraw()) {
+                    methodStats.budgetRejected();
+                    log.warn("재시도 예산 부족 method={}, ex={}", methodStats.getName(), ex.toString());
+                    throw ex;
+                }
+                methodStats.retry();
+                long backoff = policy.backoffMillis(attempt);
+                log.info("일시적인 실패, 재시도 method={}, attempt={}, backoff={}ms, ex={}",
+                        methodStats.getName(), attempt, backoff, ex.toString());
+                sleep(backoff, ex);
+                newEntityResets.forEach(Runnable::run);
+            }
+        }
+    }
+
+    private static void sleep(long millis, Throwable lastFailure) throws Throwable {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw lastFailure;
+        }
+    }
+
+    public RetryStats getStats(String name) {
+        return stats.get(name);
+    }
+
+    public Collection<RetryStats> getAllStats() {
+        return Collections.unmodifiableCollection(stats.values());
+    }
+
+    private RetryPolicy policy(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        return policies.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> createPolicy(invocation.getMethod(), targetClass));
+    }
+
+    private RetryPolicy createPolicy(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        RetryableTransaction annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RetryableTransaction.class);
+        if (annotation == null && targetClass != null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RetryableTransaction.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("@RetryableTransaction 이 없습니다. method=" + method);
+        }
+        String name = ClassUtils.getQualifiedMethodName(method, targetClass);
+        RetryStats methodStats = stats.computeIfAbsent(name,
+                key -> new RetryStats(key, new RetryBudget(properties.getBudgetRatio(), properties.getBudgetMax())));
+        return new RetryPolicy(annotation, methodStats);
+    }
+
+    private static class RetryPolicy {
+
+        private final int maxAttempts;
+        private final long backoffMillis;
+        private final long maxBackoffMillis;
+        private final RetryStats stats;
+
+        RetryPolicy(RetryableTransaction annotation, RetryStats stats) {
+            this.maxAttempts = Math.max(1, annotation.maxAttempts());
+            this.backoffMillis = annotation.backoffMillis();
+            this.maxBackoffMillis = annotation.maxBackoffMillis();
+            this.stats = stats;
+        }
+
+        // 지수 백오프 + full jitter, 동시에 실패한 요청들이 같은 순간에 다시 몰리지 않게 한다.
+        long backoffMillis(int attempt) {
+            long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+            return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package hello.springtx.tx.retry;
+
+import hello.springtx.tx.TransactionAdvisorOrder;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+// @RetryableTransaction 이 붙은 매서드(또는 클래스)에 재시도를 건다. tx.retry.enabled=false 로 끈다.
+@Configuration
+@ConditionalOnProperty(prefix = "tx.retry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionRetryConfig {
+
+    @Bean
+    public RetryableTransactionInterceptor retryableTransactionInterceptor(TransactionRetryProperties properties,
+                                                                           ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        // 어드바이저를 만들 때 EntityManagerFactory 를 일찍 만들지 않도록 처음 재시도할 때 찾는다.
+        return new RetryableTransactionInterceptor(new TransientFailureClassifier(), properties, entityManagerFactory);
+    }
+
+    @Bean
+    public Advisor retryableTransactionAdvisor(RetryableTransactionInterceptor retryableTransactionInterceptor) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(RetryableTransaction.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(RetryableTransaction.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, retryableTransactionInterceptor);
+        advisor.setOrder(TransactionAdvisorOrder.RETRY);
+        return advisor;
+    }
+}
@@ -0,0 +1,21 @@
+package hello.springtx.tx.retry;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tx.retry")
+public class TransactionRetryProperties {
+
+    private boolean enabled = true;
+
+    // 호출 한 번마다 쌓이는 재시도 토큰, 0.2 면 호출 다섯 번에 재시도 한 번까지 허용한다.
+    private double budgetRatio = 0.2;
+
+    // 쌓아둘 수 있는 최대 재시도 토큰 (처음에는 가득 차 있다.)
+    private int budgetMax = 10;
+}
@@ -0,0 +1,39 @@
+package hello.springtx.tx.retry;
+
+import org.springframework.dao.TransientDataAccessException;
+
+import java.sql.SQLException;
+
+/**
+ * 다시 실행하면 성공할 수 있는 실패인지 판단한다.
+ * - 체크 예외는 롤백되지 않고 커밋되므로 (RollbackTest 참고) 절대 재시도하지 않는다.
+ * - TransientDataAccessException (락 획득 실패, 데드락 희생, 쿼리 타임아웃 등)
+ * - SQLState 40xxx (직렬화 실패, 데드락으로 인한 롤백), HYT00 (H2 락 타임아웃)
+ */
+public class TransientFailureClassifier {
+
+    public boolean isTransient(Throwable ex) {
+        if (!(ex instanceof RuntimeException)) {
+            return false;
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException) {
+                return true;
+            }
+            if (cause instanceof SQLException && isTransientSqlState(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    static boolean isTransientSqlState(String sqlState) {
+        if (sqlState == null) {
+            return false;
+        }
+        return sqlState.startsWith("40") || sqlState.equals("HYT00");
+    }
+}
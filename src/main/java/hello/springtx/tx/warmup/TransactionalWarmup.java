@@ -0,0 +1,262 @@
+package hello.springtx.tx.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * @WarmupTask 매서드를 애플리케이션이 뜬 뒤 병렬로 실행한다.
+ * @PostConstruct 는 트랜잭션 프록시가 만들어지기 전에 호출되므로 트랜잭션이 적용되지 않는다. (InitTxTest 참고)
+ * ApplicationReadyEvent 는 준비 완료(ACCEPTING_TRAFFIC) 이벤트보다 먼저 같은 스레드에서 발행되므로,
+ * 여기서 작업이 끝날 때까지 기다리면 준비 완료가 미뤄진다.
+ *
+ * 작업마다 새 트랜잭션 하나 (REQUIRES_NEW), 의존하는 작업이 커밋된 뒤에 시작한다.
+ * 시간 예산을 넘기면 남은 작업은 TIMED_OUT, 실행 중인 작업은 인터럽트하고 트랜잭션 타임아웃으로도 막는다.
+ */
+@Slf4j
+public class TransactionalWarmup implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final ListableBeanFactory beanFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final WarmupProperties properties;
+    private final int threads;
+
+    private volatile WarmupReport lastReport;
+
+    public TransactionalWarmup(ListableBeanFactory beanFactory, PlatformTransactionManager transactionManager,
+                               WarmupProperties properties, int threads) {
+        this.beanFactory = beanFactory;
+        this.transactionManager = transactionManager;
+        this.properties = properties;
+        this.threads = threads;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        WarmupReport report = run();
+        if (!report.isSuccess() && properties.isFailOnError()) {
+            // 기동을 실패시킨다. 준비 완료로 넘어가지 않는다.
+            throw new IllegalStateException("warm-up 실패 " + report);
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Nullable
+    public WarmupReport getLastReport() {
+        return lastReport;
+    }
+
+    public WarmupReport run() {
+        List<Task> tasks = collectTasks();
+        List<Task> sorted = sort(tasks);
+        long start = System.nanoTime();
+        long deadline = start + properties.getBudget().toNanos();
+
+        List<WarmupOutcome> outcomes = new ArrayList<>(tasks.size());
+        int poolSize = Math.max(1, Math.min(threads, tasks.size()));
+        ExecutorService executor = newExecutor(poolSize);
+        try {
+            // 위상 정렬 순서로 등록하니 의존하는 작업의 future 가 항상 먼저 있다.
+            Map<String, CompletableFuture<WarmupOutcome>> futures = new HashMap<>();
+            for (Task task : sorted) {
+                List<CompletableFuture<WarmupOutcome>> dependencies = task.dependsOn.stream()
+                        .map(futures::get)
+                        .collect(Collectors.toList());
+                futures.put(task.name, CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                        .handleAsync((ignored, ex) -> runTask(task, dependencies, deadline), executor));
+            }
+            for (Task task : tasks) {
+                outcomes.add(await(task, futures.get(task.name), start, deadline));
+            }
+        } finally {
+            // 시간을 넘긴 작업은 인터럽트한다.
+            executor.shutdownNow();
+        }
+
+        WarmupReport report = new WarmupReport(poolSize, outcomes, System.nanoTime() - start);
+        lastReport = report;
+        log.info("warm-up 완료 tasks={}, committed={}, rolledBack={}, skipped={}, timedOut={}, threads={}, elapsed={}ms",
+                tasks.size(), report.count(WarmupOutcome.Status.COMMITTED),
+                report.count(WarmupOutcome.Status.ROLLED_BACK), report.count(WarmupOutcome.Status.SKIPPED),
+                report.count(WarmupOutcome.Status.TIMED_OUT), poolSize, report.getElapsedNanos() / 1_000_000);
+        return report;
+    }
+
+    private WarmupOutcome runTask(Task task, List<CompletableFuture<WarmupOutcome>> dependencies, long deadline) {
+        for (CompletableFuture<WarmupOutcome> dependency : dependencies) {
+            WarmupOutcome outcome = dependency.isCompletedExceptionally() ? null : dependency.getNow(null);
+            if (outcome == null || outcome.getStatus() != WarmupOutcome.Status.COMMITTED) {
+                return new WarmupOutcome(task.name, WarmupOutcome.Status.SKIPPED, 0, null);
+            }
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return new WarmupOutcome(task.name, WarmupOutcome.Status.TIMED_OUT, 0, null);
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName(task.name);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(task.readOnly);
+        // 남은 예산을 트랜잭션 타임아웃으로 걸어서 쿼리도 예산 안에서 끝나게 한다.
+        template.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining)));
+
+        long start = System.nanoTime();
+        try {
+            template.executeWithoutResult(status -> task.invoke(beanFactory));
+            return new WarmupOutcome(task.name, WarmupOutcome.Status.COMMITTED, System.nanoTime() - start, null);
+        } catch (RuntimeException e) {
+            log.info("warm-up 작업 롤백 name={}, ex={}", task.name, e.toString());
+            return new WarmupOutcome(task.name, WarmupOutcome.Status.ROLLED_BACK, System.nanoTime() - start, e);
+        }
+    }
+
+    private static WarmupOutcome await(Task task, CompletableFuture<WarmupOutcome> future, long start, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("warm-up 작업 시간 초과 name={}", task.name);
+            return new WarmupOutcome(task.name, WarmupOutcome.Status.TIMED_OUT, System.nanoTime() - start, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("warm-up 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            // runTask 는 런타임 예외를 결과로 바꾸므로 Error 만 여기까지 온다.
+            return new WarmupOutcome(task.name, WarmupOutcome.Status.ROLLED_BACK, System.nanoTime() - start, e.getCause());
+        }
+    }
+
+    private List<Task> collectTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> type = beanFactory.getType(beanName, false);
+            if (type == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(type);
+            if (!AnnotationUtils.isCandidateClass(userClass, WarmupTask.class)) {
+                continue;
+            }
+            Map<Method, WarmupTask> methods = MethodIntrospector.selectMethods(userClass,
+                    (MethodIntrospector.MetadataLookup<WarmupTask>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, WarmupTask.class));
+            methods.forEach((method, annotation) -> tasks.add(Task.of(beanName, method, annotation)));
+        }
+        return tasks;
+    }
+
+    // 의존하는 작업이 앞에 오도록 정렬한다. 이름이 겹치거나, 없는 작업에 의존하거나, 순환이 있으면 기동을 실패시킨다.
+    static List<Task> sort(List<Task> tasks) {
+        Map<String, Task> byName = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            if (byName.put(task.name, task) != null) {
+                throw new IllegalStateException("warm-up 작업 이름이 겹칩니다. name=" + task.name);
+            }
+        }
+        for (Task task : tasks) {
+            for (String dependency : task.dependsOn) {
+                if (!byName.containsKey(dependency)) {
+                    throw new IllegalStateException("없는 warm-up 작업에 의존합니다. name=" + task.name + ", dependsOn=" + dependency);
+                }
+            }
+        }
+
+        List<Task> sorted = new ArrayList<>(tasks.size());
+        Set<String> done = new HashSet<>();
+        while (sorted.size() < tasks.size()) {
+            boolean progressed = false;
+            for (Task task : byName.values()) {
+                if (!done.contains(task.name) && done.containsAll(task.dependsOn)) {
+                    sorted.add(task);
+                    done.add(task.name);
+                    progressed = true;
+                }
+            }
+            if (!progressed) {
+                Set<String> cycle = new HashSet<>(byName.keySet());
+                cycle.removeAll(done);
+                throw new IllegalStateException("warm-up 작업에 순환 의존이 있습니다. tasks=" + cycle);
+            }
+        }
+        return sorted;
+    }
+
+    private static ExecutorService newExecutor(int poolSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static final class Task {
+
+        final String name;
+        final String beanName;
+        final Method method;
+        final List<String> dependsOn;
+        final boolean readOnly;
+
+        Task(String name, String beanName, Method method, List<String> dependsOn, boolean readOnly) {
+            this.name = name;
+            this.beanName = beanName;
+            this.method = method;
+            this.dependsOn = dependsOn;
+            this.readOnly = readOnly;
+        }
+
+        static Task of(String beanName, Method method, WarmupTask annotation) {
+            if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())
+                    || Modifier.isPrivate(method.getModifiers())) {
+                throw new IllegalStateException("@WarmupTask 는 파라미터가 없는 인스턴스 매서드에만 붙일 수 있습니다. method=" + method);
+            }
+            String name = StringUtils.hasText(annotation.value()) ? annotation.value() : beanName + "." + method.getName();
+            return new Task(name, beanName, method, Collections.unmodifiableList(Arrays.asList(annotation.dependsOn())),
+                    annotation.readOnly());
+        }
+
+        // 프록시를 통해 호출하므로 매서드에 붙은 다른 AOP(@Transactional 등)도 적용된다.
+        void invoke(ListableBeanFactory beanFactory) {
+            Object bean = beanFactory.getBean(beanName);
+            Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+            ReflectionUtils.makeAccessible(invocable);
+            ReflectionUtils.invokeMethod(invocable, bean);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package hello.springtx.tx.warmup;
+
+import hello.springtx.datasource.ConnectionPools;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "tx.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupConfig {
+
+    @Bean
+    public TransactionalWarmup transactionalWarmup(ListableBeanFactory beanFactory,
+                                                   PlatformTransactionManager transactionManager,
+                                                   DataSource dataSource, WarmupProperties properties) {
+        return new TransactionalWarmup(beanFactory, transactionManager, properties, resolveThreads(dataSource, properties));
+    }
+
+    // 코어 수만큼 늘리되, 작업 하나가 커넥션 하나를 쓰니 커넥션 풀 크기를 넘지 않게 한다.
+    private static int resolveThreads(DataSource dataSource, WarmupProperties properties) {
+        if (properties.getThreads() > 0) {
+            return properties.getThreads();
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(cores, ConnectionPools.maximumPoolSize(dataSource, "tx.warmup.threads") - 1));
+    }
+}
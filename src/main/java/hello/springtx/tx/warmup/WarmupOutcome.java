@@ -0,0 +1,29 @@
+package hello.springtx.tx.warmup;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 작업 하나의 결과
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class WarmupOutcome {
+
+    public enum Status {
+        COMMITTED,   // 커밋
+        ROLLED_BACK, // 예외로 롤백
+        SKIPPED,     // 앞 작업이 실패해서 시작하지 않음
+        TIMED_OUT    // 시간 예산을 넘김
+    }
+
+    private final String name;
+    private final Status status;
+    private final long elapsedNanos;
+    private final Throwable failure;
+
+    @Override
+    public String toString() {
+        return name + "{status=" + status + ", elapsed=" + elapsedNanos / 1_000_000 + "ms"
+                + (failure != null ? ", failure=" + failure : "") + "}";
+    }
+}
@@ -0,0 +1,26 @@
+package hello.springtx.tx.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tx.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    // 작업을 실행하는 스레드 수, 0 이면 min(코어 수, 커넥션 풀 크기 - 1)
+    private int threads = 0;
+
+    // 전체 시간 예산, 넘으면 남은 작업은 TIMED_OUT
+    private Duration budget = Duration.ofMinutes(5);
+
+    // 실패하거나 시간을 넘긴 작업이 있으면 기동을 실패시킨다. (준비 완료로 넘어가지 않는다.)
+    private boolean failOnError = true;
+}
@@ -0,0 +1,34 @@
+package hello.springtx.tx.warmup;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+// warm-up 전체 결과, 작업을 등록한 순서대로
+@Getter
+@RequiredArgsConstructor
+public class WarmupReport {
+
+    private final int threads;
+    private final List<WarmupOutcome> outcomes;
+    private final long elapsedNanos;
+
+    public boolean isSuccess() {
+        return outcomes.stream().allMatch(outcome -> outcome.getStatus() == WarmupOutcome.Status.COMMITTED);
+    }
+
+    public long count(WarmupOutcome.Status status) {
+        return outcomes.stream().filter(outcome -> outcome.getStatus() == status).count();
+    }
+
+    public WarmupOutcome get(String name) {
+        return outcomes.stream().filter(outcome -> outcome.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("등록되지 않은 warm-up 작업입니다. name=" + name));
+    }
+
+    @Override
+    public String toString() {
+        return "{threads=" + threads + ", elapsed=" + elapsedNanos / 1_000_000 + "ms, outcomes=" + outcomes + "}";
+    }
+}
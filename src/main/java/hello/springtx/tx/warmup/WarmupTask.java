@@ -0,0 +1,27 @@
+package hello.springtx.tx.warmup;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 애플리케이션이 뜬 뒤(ApplicationReadyEvent) 트랜잭션 안에서 실행할 초기화 매서드
+ * 캐시 적재, 대기 주문 조회, 코드 테이블 로딩 등
+ * 작업마다 새 트랜잭션 하나로 병렬 실행하고, 모두 끝날 때까지 준비 완료(ReadinessState.ACCEPTING_TRAFFIC)를 미룬다.
+ * 파라미터가 없는 매서드에만 붙인다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WarmupTask {
+
+    // 작업 이름, 비어 있으면 "빈이름.매서드이름"
+    String value() default "";
+
+    // 먼저 끝나야 하는 작업 이름, 앞 작업이 실패하면 이 작업은 건너뛴다.
+    String[] dependsOn() default {};
+
+    boolean readOnly() default false;
+}
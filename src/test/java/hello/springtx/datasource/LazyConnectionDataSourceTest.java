@@ -0,0 +1,49 @@
+package hello.springtx.datasource;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.tx.metrics.LatencySnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest(properties = "datasource.lazy-connection.enabled=true")
+class LazyConnectionDataSourceTest {
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ConnectionHoldTimeRecorder recorder;
+    @Autowired EntityManager em;
+
+    @Test
+    void noSqlTransactionSkipsCheckout() {
+        //when: SQL 이 없는 트랜잭션
+        transaction("lazy.noSql").executeWithoutResult(status -> log.info("call noSql"));
+
+        //then: 커넥션을 꺼내지 않았다.
+        assertThat(recorder.getStats("lazy.noSql")).isNull();
+    }
+
+    @Test
+    void checkoutAtFirstStatement() {
+        //when
+        transaction("lazy.withSql").executeWithoutResult(status -> em.persist(new Member("lazy_withSql")));
+
+        //then: 첫 SQL 에서 꺼내고 커밋 직후 반납한다.
+        LatencySnapshot stats = recorder.getStats("lazy.withSql");
+        log.info("hold time={}", stats);
+        assertThat(stats.getCount()).isEqualTo(1);
+    }
+
+    private TransactionTemplate transaction(String name) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName(name);
+        return template;
+    }
+}
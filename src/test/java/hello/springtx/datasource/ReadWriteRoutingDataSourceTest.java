@@ -0,0 +1,130 @@
+package hello.springtx.datasource;
+
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// primary, replica 가 같은 H2 메모리 디비를 본다. (스키마는 primary 에서 만든 것을 그대로 쓴다.)
+// replica 커넥션에만 @target 세션 변수를 넣어서 어느 풀의 커넥션인지 구분한다.
+@Slf4j
+@SpringBootTest(properties = {
+        "datasource.routing.enabled=true",
+        "datasource.routing.stickiness=500ms",
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "datasource.routing.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "datasource.routing.replica.username=sa",
+        "datasource.routing.replica.hikari.connection-init-sql=SET @target = 'REPLICA'"
+})
+class ReadWriteRoutingDataSourceTest {
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    // 테스트마다 새 스레드, 이전 테스트의 쓰기(stickiness)가 남지 않는다.
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readOnlyGoesToReplica() throws Exception {
+        String target = CompletableFuture.supplyAsync(() -> currentTarget(true), executor).get();
+        log.info("readOnly target={}", target);
+        assertThat(target).isEqualTo("REPLICA");
+    }
+
+    @Test
+    void writeGoesToPrimary() {
+        String target = currentTarget(false);
+        log.info("write target={}", target);
+        assertThat(target).isNotEqualTo("REPLICA");
+    }
+
+    @Test
+    void repositoryReadsOnReplica() throws Exception {
+        memberRepository.save(new Member("routing_member"));
+        logRepository.save(new Log("routing_log"));
+        // 2차 캐시에서 찾으면 SQL 을 실행하지 않는다.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        CompletableFuture.runAsync(() -> {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.executeWithoutResult(status -> {
+                assertThat(jdbcTemplate.queryForObject("select @target", String.class)).isEqualTo("REPLICA");
+                // readOnly 조회가 같은 replica 커넥션에 참여한다.
+                assertThat(memberRepository.find("routing_member")).isPresent();
+                assertThat(logRepository.find("routing_log")).isPresent();
+            });
+        }, executor).get();
+    }
+
+    @Test
+    void readYourWrites() throws Exception {
+        String target = CompletableFuture.supplyAsync(() -> {
+            currentTarget(false);
+            // 쓰기 직후 stickiness 안에서는 readOnly 도 primary 에서 읽는다.
+            String sticky = currentTarget(true);
+            sleep(600);
+            assertThat(currentTarget(true)).isEqualTo("REPLICA");
+            return sticky;
+        }, executor).get();
+        assertThat(target).isNotEqualTo("REPLICA");
+    }
+
+    @Test
+    void stickinessStartsAtCommit() throws Exception {
+        String target = CompletableFuture.supplyAsync(() -> {
+            // stickiness 보다 오래 걸리는 쓰기 트랜잭션
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("select @target", String.class);
+                sleep(600);
+            });
+            return currentTarget(true);
+        }, executor).get();
+        assertThat(target).isNotEqualTo("REPLICA");
+    }
+
+    private String currentTarget(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("select @target", String.class));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
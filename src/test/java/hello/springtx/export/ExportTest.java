@@ -0,0 +1,62 @@
+package hello.springtx.export;
+
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.order.PayStatus;
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest
+class ExportTest {
+
+    @Autowired LogRepository logRepository;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    void exportLogsAsCsv() {
+        //given
+        logRepository.save(new Log("export, \"quoted\""));
+
+        //when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = logRepository.export(new CsvExportSink(Channels.newChannel(out)));
+
+        //then
+        String csv = out.toString(StandardCharsets.UTF_8);
+        log.info("csv=\n{}", csv);
+        String[] lines = csv.split("\r\n");
+        assertThat(lines[0]).isEqualTo("id,message,createdAt");
+        assertThat(lines).hasSize((int) count + 1);
+        assertThat(csv).contains(",\"export, \"\"quoted\"\"\"");
+    }
+
+    @Test
+    void exportOrdersAsNdjson() {
+        //given
+        Order order = new Order();
+        order.setUsername("export\n줄바꿈");
+        order.setPayStatus(PayStatus.WAITING);
+        orderRepository.save(order);
+
+        //when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = orderRepository.export(PayStatus.WAITING, new NdjsonExportSink(Channels.newChannel(out)));
+
+        //then
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson.split("\n")).hasSize((int) count);
+        assertThat(ndjson).contains("{\"id\":" + order.getId() + ",\"username\":\"export\\n줄바꿈\",\"payStatus\":\"WAITING\",\"idempotencyKey\":null}");
+        assertThat(ndjson).doesNotContain("\"COMPLETED\"");
+    }
+}
@@ -0,0 +1,186 @@
+package hello.springtx.load;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.MemberService;
+import hello.springtx.tx.metrics.LatencyHistogram;
+import hello.springtx.tx.metrics.LatencySnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 스레드로 MemberService.joinV1/joinV2, OrderService.order 를 계속 호출한다.
+ * 요청 종류는 LoadProfile 의 가중치대로 섞고, 워밍업 뒤 측정 시간 동안의 결과만 모은다.
+ */
+@Slf4j
+public class LoadDriver {
+
+    private final MemberService memberService;
+    private final OrderService orderService;
+    private final HikariDataSource pool;
+    private final PoolWaitTracker poolWaitTracker;
+    private final PhysicalTransactionCounter transactionCounter;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    LoadDriver(MemberService memberService, OrderService orderService, DataSource dataSource,
+               PhysicalTransactionCounter transactionCounter) throws SQLException {
+        this.memberService = memberService;
+        this.orderService = orderService;
+        this.pool = dataSource.unwrap(HikariDataSource.class);
+        this.poolWaitTracker = installPoolWaitTracker(pool);
+        this.transactionCounter = transactionCounter;
+    }
+
+    private static PoolWaitTracker installPoolWaitTracker(HikariDataSource pool) {
+        if (pool.getMetricsTrackerFactory() instanceof PoolWaitTracker) {
+            return (PoolWaitTracker) pool.getMetricsTrackerFactory();
+        }
+        PoolWaitTracker tracker = new PoolWaitTracker();
+        pool.setMetricsTrackerFactory(tracker);
+        return tracker;
+    }
+
+    public LoadReport run(LoadProfile profile) throws InterruptedException {
+        if (profile.getMix().isEmpty()) {
+            throw new IllegalArgumentException("요청 비율(mix)이 비어 있습니다.");
+        }
+        LoadOperation[] wheel = weightedWheel(profile.getMix());
+
+        // 커넥션 풀 크기는 실행 중에도 바꿀 수 있다.
+        pool.getHikariConfigMXBean().setMaximumPoolSize(profile.getPoolSize());
+        pool.getHikariConfigMXBean().setMinimumIdle(profile.getPoolSize());
+
+        Measurement measurement = new Measurement();
+        ExecutorService executor = Executors.newFixedThreadPool(profile.getThreads());
+        try {
+            long warmupEnd = System.nanoTime() + profile.getWarmup().toNanos();
+            long end = warmupEnd + profile.getDuration().toNanos();
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < profile.getThreads(); i++) {
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < warmupEnd) {
+                        call(next(wheel));
+                    }
+                    measurement.start(); // 처음 측정에 들어온 스레드가 카운터를 비운다.
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        LoadOperation operation = next(wheel);
+                        Throwable failure = call(operation);
+                        measurement.record(operation, System.nanoTime() - now, failure);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("부하 스레드 실패", e.getCause());
+                }
+            }
+            return measurement.report(profile, System.nanoTime() - measurement.startNanos);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Throwable call(LoadOperation operation) {
+        try {
+            switch (operation) {
+                case JOIN_V1_NORMAL:
+                case JOIN_V1_LOG_EXCEPTION:
+                    memberService.joinV1(operation.username(sequence.incrementAndGet()));
+                    break;
+                case JOIN_V2_NORMAL:
+                case JOIN_V2_LOG_EXCEPTION:
+                    memberService.joinV2(operation.username(sequence.incrementAndGet()));
+                    break;
+                default:
+                    orderService.order(operation.order());
+            }
+            return null;
+        } catch (RuntimeException | NotEnoughMoneyException e) {
+            return e;
+        }
+    }
+
+    private static LoadOperation next(LoadOperation[] wheel) {
+        return wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+    }
+
+    // 가중치만큼 반복해서 채운 배열에서 무작위로 뽑는다.
+    private static LoadOperation[] weightedWheel(Map<LoadOperation, Integer> mix) {
+        List<LoadOperation> wheel = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        return wheel.toArray(new LoadOperation[0]);
+    }
+
+    private class Measurement {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<LoadOperation, LatencyHistogram> latencyByOperation = new EnumMap<>(LoadOperation.class);
+        private final Map<LoadOperation, LongAdder> exceptionsByOperation = new EnumMap<>(LoadOperation.class);
+        private final LongAdder unexpectedErrors = new LongAdder();
+        private volatile long startNanos;
+
+        Measurement() {
+            for (LoadOperation operation : LoadOperation.values()) {
+                latencyByOperation.put(operation, new LatencyHistogram());
+                exceptionsByOperation.put(operation, new LongAdder());
+            }
+        }
+
+        synchronized void start() {
+            if (startNanos == 0) {
+                poolWaitTracker.reset();
+                transactionCounter.reset();
+                startNanos = System.nanoTime();
+            }
+        }
+
+        void record(LoadOperation operation, long nanos, Throwable failure) {
+            latency.record(nanos);
+            latencyByOperation.get(operation).record(nanos);
+            if (failure != null) {
+                exceptionsByOperation.get(operation).increment();
+                if (!operation.isFailureInput()) {
+                    unexpectedErrors.increment();
+                    log.warn("예상하지 못한 실패 operation={}, ex={}", operation, failure.toString());
+                }
+            }
+        }
+
+        LoadReport report(LoadProfile profile, long elapsedNanos) {
+            Map<LoadOperation, LatencySnapshot> latencies = new EnumMap<>(LoadOperation.class);
+            Map<LoadOperation, Long> exceptions = new EnumMap<>(LoadOperation.class);
+            for (LoadOperation operation : profile.getMix().keySet()) {
+                latencies.put(operation, latencyByOperation.get(operation).snapshot());
+                exceptions.put(operation, exceptionsByOperation.get(operation).sum());
+            }
+            return new LoadReport(profile, elapsedNanos, latency.snapshot(), latencies, exceptions,
+                    unexpectedErrors.sum(), transactionCounter.getCommits(), transactionCounter.getRollbacks(),
+                    poolWaitTracker.getAcquire().snapshot(), poolWaitTracker.getTimeouts());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package hello.springtx.load;
+
+import hello.springtx.order.Order;
+
+// 부하 테스트에서 섞어서 호출하는 요청 종류
+public enum LoadOperation {
+
+    JOIN_V1_NORMAL(false),
+    JOIN_V1_LOG_EXCEPTION(true),  // 로그 저장 실패 -> 전체 롤백
+    JOIN_V2_NORMAL(false),
+    JOIN_V2_LOG_EXCEPTION(true),  // 로그만 롤백, 예외를 잡아서 회원은 커밋
+    ORDER_NORMAL(false),
+    ORDER_SYSTEM_EXCEPTION(true), // 런타임 예외 -> 롤백
+    ORDER_NOT_ENOUGH_MONEY(true); // 체크 예외 -> 커밋
+
+    private final boolean failureInput;
+
+    LoadOperation(boolean failureInput) {
+        this.failureInput = failureInput;
+    }
+
+    public boolean isFailureInput() {
+        return failureInput;
+    }
+
+    // username 은 유일해야 하므로 요청 번호를 붙인다.
+    String username(long sequence) {
+        switch (this) {
+            case JOIN_V1_LOG_EXCEPTION:
+            case JOIN_V2_LOG_EXCEPTION:
+                return "로그예외_load_" + sequence;
+            default:
+                return "load_" + sequence;
+        }
+    }
+
+    Order order() {
+        Order order = new Order();
+        switch (this) {
+            case ORDER_SYSTEM_EXCEPTION:
+                order.setUsername("예외");
+                break;
+            case ORDER_NOT_ENOUGH_MONEY:
+                order.setUsername("잔고부족");
+                break;
+            default:
+                order.setUsername("정상");
+        }
+        return order;
+    }
+}
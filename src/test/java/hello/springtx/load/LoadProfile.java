@@ -0,0 +1,36 @@
+package hello.springtx.load;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정, 스레드 수, 커넥션 풀 크기, 측정 시간, 요청 비율(가중치)
+ */
+@Getter
+@Builder(toBuilder = true)
+public class LoadProfile {
+
+    @Builder.Default
+    private final int threads = 8;
+
+    @Builder.Default
+    private final int poolSize = 10;
+
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(2);
+
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(10);
+
+    @Singular("weight")
+    private final Map<LoadOperation, Integer> mix;
+
+    @Override
+    public String toString() {
+        return "{threads=" + threads + ", poolSize=" + poolSize + ", duration=" + duration + ", mix=" + mix + "}";
+    }
+}
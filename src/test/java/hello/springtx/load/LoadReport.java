@@ -0,0 +1,49 @@
+package hello.springtx.load;
+
+import hello.springtx.tx.metrics.LatencySnapshot;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 부하 테스트 결과
+ * 요청 종류별 지연 시간, 물리 트랜잭션 롤백 비율, 커넥션 풀 대기 시간
+ */
+@Getter
+@RequiredArgsConstructor
+public class LoadReport {
+
+    private final LoadProfile profile;
+    private final long elapsedNanos;
+    private final LatencySnapshot latency;
+    private final Map<LoadOperation, LatencySnapshot> latencyByOperation;
+    private final Map<LoadOperation, Long> exceptionsByOperation;
+    private final long unexpectedErrors;   // 입력과 상관없는 실패 (커넥션 타임아웃 등)
+    private final long physicalCommits;
+    private final long physicalRollbacks;
+    private final LatencySnapshot poolWait;
+    private final long poolTimeouts;
+
+    public double getThroughput() {
+        return latency.getCount() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    public double getRollbackRate() {
+        long total = physicalCommits + physicalRollbacks;
+        return total == 0 ? 0 : (double) physicalRollbacks / total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("profile=%s%n", profile));
+        sb.append(String.format("  throughput=%.1f req/s, latency=%s%n", getThroughput(), latency));
+        sb.append(String.format("  physical commits=%d, rollbacks=%d, rollbackRate=%.2f%%, unexpectedErrors=%d%n",
+                physicalCommits, physicalRollbacks, getRollbackRate() * 100, unexpectedErrors));
+        sb.append(String.format("  poolWait=%s, poolTimeouts=%d%n", poolWait, poolTimeouts));
+        latencyByOperation.forEach((operation, snapshot) -> sb.append(String.format("  %-24s %s exceptions=%d%n",
+                operation, snapshot, exceptionsByOperation.getOrDefault(operation, 0L))));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package hello.springtx.load;
+
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 동시 부하 테스트, 스레드 수를 늘려가며 처리량이 꺾이는 지점을 찾는다.
+ * ./gradlew loadTest -Dload.threads=1,2,4,8,16,32 -Dload.pool-size=10 -Dload.duration=10
+ *
+ * load.threads   : 스레드 수 목록 (쉼표로 구분, 차례대로 실행)
+ * load.pool-size : 커넥션 풀 크기
+ * load.warmup    : 워밍업 시간 (초)
+ * load.duration  : 측정 시간 (초)
+ * load.mix       : 요청 비율, 예) JOIN_V1_NORMAL=4,JOIN_V1_LOG_EXCEPTION=1,ORDER_SYSTEM_EXCEPTION=1
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(properties = {
+        "logging.level.hello.springtx=WARN",
+        "logging.level.org.springframework.jdbc.datasource.DataSourceTransactionManager=WARN",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+        "logging.level.org.hibernate.resource.transaction=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "tx.recorder.dump-on-unexpected-rollback=false"
+})
+class LoadTest {
+
+    static final String DEFAULT_MIX = "JOIN_V1_NORMAL=3,JOIN_V1_LOG_EXCEPTION=1,JOIN_V2_NORMAL=3,JOIN_V2_LOG_EXCEPTION=1,"
+            + "ORDER_NORMAL=6,ORDER_SYSTEM_EXCEPTION=1,ORDER_NOT_ENOUGH_MONEY=1";
+
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+    @Autowired DataSource dataSource;
+    @Autowired PhysicalTransactionCounter transactionCounter;
+
+    @TestConfiguration
+    static class LoadTestConfig {
+
+        @Bean
+        PhysicalTransactionCounter physicalTransactionCounter() {
+            return new PhysicalTransactionCounter();
+        }
+    }
+
+    @Test
+    void sweepThreads() throws Exception {
+        LoadDriver driver = new LoadDriver(memberService, orderService, dataSource, transactionCounter);
+        LoadProfile base = baseProfile();
+
+        List<LoadReport> reports = new ArrayList<>();
+        for (int threads : intList(System.getProperty("load.threads", "1,4,16"))) {
+            LoadReport report = driver.run(base.toBuilder().threads(threads).build());
+            log.warn("\n{}", report);
+            reports.add(report);
+        }
+
+        log.warn("threads -> throughput, p99");
+        reports.forEach(report -> log.warn("{} -> {} req/s, p99={}us, poolWait p99={}us", report.getProfile().getThreads(),
+                (long) report.getThroughput(), report.getLatency().getP99Nanos() / 1_000,
+                report.getPoolWait().getP99Nanos() / 1_000));
+        assertThat(reports).allSatisfy(report -> assertThat(report.getLatency().getCount()).isPositive());
+    }
+
+    private static LoadProfile baseProfile() {
+        LoadProfile.LoadProfileBuilder builder = LoadProfile.builder()
+                .poolSize(Integer.getInteger("load.pool-size", 10))
+                .warmup(Duration.ofSeconds(Long.getLong("load.warmup", 2)))
+                .duration(Duration.ofSeconds(Long.getLong("load.duration", 10)));
+        for (String entry : System.getProperty("load.mix", DEFAULT_MIX).split(",")) {
+            String[] pair = entry.trim().split("=");
+            builder.weight(LoadOperation.valueOf(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return builder.build();
+    }
+
+    private static int[] intList(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+}
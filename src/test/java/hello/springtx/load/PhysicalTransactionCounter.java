@@ -0,0 +1,40 @@
+package hello.springtx.load;
+
+import hello.springtx.tx.TransactionFrame;
+import hello.springtx.tx.TransactionLifecycleListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// 새 물리 트랜잭션의 커밋/롤백만 센다. (참여한 트랜잭션 제외)
+class PhysicalTransactionCounter implements TransactionLifecycleListener {
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+
+    @Override
+    public void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+        if (frame.isNewTransaction()) {
+            commits.increment();
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionFrame frame, long rollbackNanos) {
+        if (frame.isNewTransaction()) {
+            rollbacks.increment();
+        }
+    }
+
+    long getCommits() {
+        return commits.sum();
+    }
+
+    long getRollbacks() {
+        return rollbacks.sum();
+    }
+
+    void reset() {
+        commits.reset();
+        rollbacks.reset();
+    }
+}
@@ -0,0 +1,44 @@
+package hello.springtx.load;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import hello.springtx.tx.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Hikari 가 알려주는 커넥션 획득 대기 시간을 모은다.
+// MetricsTrackerFactory 는 풀마다 한 번만 설정할 수 있으니 reset 해서 다시 쓴다.
+class PoolWaitTracker implements MetricsTrackerFactory {
+
+    private final LatencyHistogram acquire = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquire.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    LatencyHistogram getAcquire() {
+        return acquire;
+    }
+
+    long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    void reset() {
+        acquire.reset();
+        timeouts.reset();
+    }
+}
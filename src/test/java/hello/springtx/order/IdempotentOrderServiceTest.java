@@ -0,0 +1,74 @@
+package hello.springtx.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest
+class IdempotentOrderServiceTest {
+
+    @Autowired IdempotentOrderService service;
+    @Autowired OrderRepository repository;
+    @Autowired OrderIdempotencyCache cache;
+
+    @Test
+    void retryReturnsCachedResult() {
+        //given
+        OrderResult first = service.submit(newOrder("정상", "key-cached"));
+
+        //when
+        // 같은 키로 재시도하면 캐시에서 바로 돌려준다.
+        OrderResult retry = service.submit(newOrder("정상", "key-cached"));
+
+        //then
+        assertThat(retry).isSameAs(first);
+        assertThat(retry.getStatus()).isEqualTo(OrderResult.Status.COMPLETED);
+        assertThat(repository.findByIdempotencyKey("key-cached")).isPresent(); // 두 건이면 IncorrectResultSizeDataAccessException
+    }
+
+    @Test
+    void cacheMissFallsBackToUniqueConstraint() {
+        //given
+        OrderResult first = service.submit(newOrder("잔고부족", "key-miss"));
+        cache.clear(); // 다른 서버로 재시도가 온 경우
+
+        //when
+        Order retryOrder = newOrder("잔고부족", "key-miss");
+        OrderResult retry = service.submit(retryOrder);
+
+        //then
+        // 유니크 제약조건 위반으로 새 주문은 저장되지 않고, 먼저 저장된 주문의 결과를 돌려준다.
+        assertThat(retry.getStatus()).isEqualTo(OrderResult.Status.PENDING);
+        assertThat(retry.getOrder().getId()).isEqualTo(first.getOrder().getId());
+        assertThat(retryOrder.getId()).isNull();
+        assertThat(repository.findByIdempotencyKey("key-miss")).isPresent();
+    }
+
+    @Test
+    void rolledBackOrderIsNotRemembered() {
+        //given
+        Order order = newOrder("예외", "key-rollback");
+
+        //when
+        try {
+            service.submit(order);
+        } catch (RuntimeException e) {
+            log.info("시스템 예외, 재시도하면 다시 주문한다.");
+        }
+
+        //then
+        assertThat(cache.get("key-rollback")).isNull();
+        assertThat(repository.findByIdempotencyKey("key-rollback")).isEmpty();
+    }
+
+    private Order newOrder(String username, String idempotencyKey) {
+        Order order = new Order();
+        order.setUsername(username);
+        order.setIdempotencyKey(idempotencyKey);
+        return order;
+    }
+}
@@ -0,0 +1,49 @@
+package hello.springtx.order;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 주문 하나마다 flush 한다. (공유하는 OrderBatchProperties 를 바꾸지 않도록 컨텍스트를 따로 띄운다.)
+@SpringBootTest(properties = "order.batch.flush-size=1")
+class OrderBatchFlushTest {
+
+    @Autowired OrderService service;
+
+    @Test
+    void orderAllFlushFailure() {
+        //given: 255자를 넘는 username, insert 가 flush 시점에 실패한다.
+        List<Order> orders = List.of(newOrder("정상"), newOrder("x".repeat(300)), newOrder("정상"));
+
+        //when
+        OrderBatchReport report = service.orderAll(orders.iterator(), 3);
+
+        //then: flush 를 부른 두 번째 주문이 FAILED
+        assertThat(report.getResults()).extracting(OrderResult::getStatus).containsExactly(
+                OrderResult.Status.ROLLED_BACK, OrderResult.Status.FAILED, OrderResult.Status.ROLLED_BACK);
+    }
+
+    @Test
+    void orderAllInvalidFlushSize() {
+        //given
+        OrderBatchProperties invalid = new OrderBatchProperties();
+        invalid.setFlushSize(0);
+
+        OrderService invalidService = new OrderService(null, null, null, invalid);
+
+        //when then: 0 이면 나머지 연산(ArithmeticException) 전에, 트랜잭션을 시작하기 전에 거절한다.
+        assertThatThrownBy(() -> invalidService.orderAll(List.of(newOrder("정상")).iterator(), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
@@ -0,0 +1,73 @@
+package hello.springtx.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 10만 건 insert 처리량 비교
+ * ./gradlew benchmark --tests "*OrderInsertBenchmark*"
+ *
+ * SingleSequence: 시퀀스 할당 크기 1, 배치 없음 (insert 마다 시퀀스 조회, 변경 전)
+ * PooledSequence: pooled-lo 할당 크기 50 + JDBC 배치 insert (변경 후)
+ */
+@Slf4j
+@Tag("benchmark")
+abstract class OrderInsertBenchmark {
+
+    static final int ORDER_COUNT = 100_000;
+    static final int CHUNK_SIZE = 1_000;
+    static final int FLUSH_SIZE = 50;
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired OrderRepository repository;
+    @Autowired EntityManager em;
+
+    @Test
+    void insertOrders() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        long before = repository.count();
+
+        long start = System.nanoTime();
+        for (int chunk = 0; chunk < ORDER_COUNT / CHUNK_SIZE; chunk++) {
+            template.executeWithoutResult(status -> {
+                for (int i = 1; i <= CHUNK_SIZE; i++) {
+                    Order order = new Order();
+                    order.setUsername("정상");
+                    order.setPayStatus(PayStatus.COMPLETED);
+                    em.persist(order);
+
+                    if (i % FLUSH_SIZE == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+            });
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        log.info("[{}] {} orders in {} ms, {} inserts/sec", getClass().getSimpleName(), ORDER_COUNT,
+                elapsedNanos / 1_000_000, (long) (ORDER_COUNT / (elapsedNanos / 1_000_000_000.0)));
+        assertThat(repository.count() - before).isEqualTo(ORDER_COUNT);
+    }
+
+    @SpringBootTest(properties = {
+            "spring.jpa.properties.hello.id.orders_seq.increment_size=1",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+            "logging.level.org.hibernate.SQL=WARN"
+    })
+    static class SingleSequence extends OrderInsertBenchmark {
+    }
+
+    @SpringBootTest(properties = "logging.level.org.hibernate.SQL=WARN")
+    static class PooledSequence extends OrderInsertBenchmark {
+    }
+}
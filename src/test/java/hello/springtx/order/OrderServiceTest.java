@@ -5,7 +5,9 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -30,7 +32,7 @@ class OrderServiceTest {
 
         //then
         Order findOrder = repository.findById(order.getId()).get();
-        assertThat(findOrder.getPayStatus()).isEqualTo("완료");
+        assertThat(findOrder.getPayStatus()).isEqualTo(PayStatus.COMPLETED);
     }
 
     @Test
@@ -69,6 +71,69 @@ class OrderServiceTest {
         //then
         // 롤백이 되서 디비에 안 담겨있어야한다.
         Order findOrder = repository.findById(order.getId()).get();
-        assertThat(findOrder.getPayStatus()).isEqualTo("대기");
+        assertThat(findOrder.getPayStatus()).isEqualTo(PayStatus.WAITING);
     }
-}
\ No newline at end of file
+
+    @Test
+    void orderAll() {
+        //given
+        List<Order> orders = List.of(
+                newOrder("정상"), newOrder("잔고부족"),  // 청크 1: 커밋
+                newOrder("정상"), newOrder("예외"),      // 청크 2: 롤백
+                newOrder("정상"));                       // 청크 3: 커밋
+
+        //when
+        // 예외가 나도 던지지 않고 주문별 결과를 돌려준다.
+        OrderBatchReport report = service.orderAll(orders.iterator(), 2);
+
+        //then
+        assertThat(report.getResults()).extracting(OrderResult::getStatus).containsExactly(
+                OrderResult.Status.COMPLETED, OrderResult.Status.PENDING,
+                OrderResult.Status.ROLLED_BACK, OrderResult.Status.FAILED,
+                OrderResult.Status.COMPLETED);
+        assertThat(report.getCommittedChunks()).isEqualTo(2);
+        assertThat(report.getRolledBackChunks()).isEqualTo(1);
+
+        assertThat(repository.findById(orders.get(0).getId()).get().getPayStatus()).isEqualTo(PayStatus.COMPLETED);
+        assertThat(repository.findById(orders.get(1).getId()).get().getPayStatus()).isEqualTo(PayStatus.WAITING);
+        // 롤백된 청크는 저장되지 않는다.
+        assertThat(orders.get(2).getId()).isNull();
+        assertThat(orders.get(3).getId()).isNull();
+        assertThat(repository.findById(orders.get(4).getId()).get().getPayStatus()).isEqualTo(PayStatus.COMPLETED);
+    }
+
+    @Test
+    void orderAllInvalidChunkSize() {
+        assertThatThrownBy(() -> service.orderAll(List.of(newOrder("정상")).iterator(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.orderAll(List.of(newOrder("정상")).iterator(), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findWaitingOrders() throws NotEnoughMoneyException {
+        //given
+        Order completed = newOrder("정상");
+        service.order(completed);
+        Order waiting = newOrder("잔고부족");
+        try {
+            service.order(waiting);
+        } catch (NotEnoughMoneyException e) {
+            log.info("잔고 부족, 대기 상태로 저장");
+        }
+
+        //when
+        List<Order> orders = repository.findByPayStatusAndIdGreaterThanOrderByIdAsc(
+                PayStatus.WAITING, completed.getId() - 1, PageRequest.of(0, 100));
+
+        //then
+        assertThat(orders).extracting(Order::getId).contains(waiting.getId()).doesNotContain(completed.getId());
+        assertThat(orders).allMatch(order -> order.getPayStatus() == PayStatus.WAITING);
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
@@ -0,0 +1,61 @@
+package hello.springtx.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest
+class PendingOrderReconcilerTest {
+
+    @Autowired PendingOrderReconciler reconciler;
+    @Autowired OrderRepository repository;
+
+    @Test
+    void reconcile() throws InterruptedException {
+        //given
+        Order deposited = repository.save(waitingOrder("정상"));        // 그 사이 입금되어 이번에는 승인된다.
+        Order stillShort = repository.save(waitingOrder("잔고부족"));    // 여전히 잔고 부족
+        Order claimedByOther = waitingOrder("정상");                    // 다른 인스턴스가 처리 중
+        claimedByOther.setClaimedBy("other#1");
+        claimedByOther.setLeaseExpiresAt(Instant.now().plus(1, ChronoUnit.MINUTES));
+        repository.save(claimedByOther);
+
+        //when
+        ReconcileReport report = reconciler.reconcile();
+        log.info("report={}", report);
+
+        //then
+        assertThat(repository.findById(deposited.getId()).get().getPayStatus()).isEqualTo(PayStatus.COMPLETED);
+
+        Order waiting = repository.findById(stillShort.getId()).get();
+        assertThat(waiting.getPayStatus()).isEqualTo(PayStatus.WAITING);
+        assertThat(waiting.getClaimedBy()).isNull();
+        assertThat(waiting.getLeaseExpiresAt()).isAfter(Instant.now()); // retryDelay 뒤에 다시 시도
+
+        // 리스가 살아 있는 주문은 건드리지 않는다.
+        Order other = repository.findById(claimedByOther.getId()).get();
+        assertThat(other.getPayStatus()).isEqualTo(PayStatus.WAITING);
+        assertThat(other.getClaimedBy()).isEqualTo("other#1");
+
+        assertThat(report.getCompletedCount()).isGreaterThanOrEqualTo(1);
+        assertThat(report.getFailedCount()).isZero();
+
+        // 다시 돌리면 재시도 시각이 안 된 주문은 선점하지 않는다.
+        ReconcileReport again = reconciler.reconcile();
+        assertThat(again.getClaimed()).isZero();
+    }
+
+    private Order waitingOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        order.setPayStatus(PayStatus.WAITING);
+        return order;
+    }
+}
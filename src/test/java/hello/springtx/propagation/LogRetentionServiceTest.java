@@ -0,0 +1,122 @@
+package hello.springtx.propagation;
+
+import hello.springtx.export.NdjsonExportSink;
+import hello.springtx.tx.TransactionFrame;
+import hello.springtx.tx.TransactionLifecycleListener;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest(properties = {"log.retention.chunk-size=2", "log.retention.pause=0ms"})
+class LogRetentionServiceTest {
+
+    @Autowired LogRetentionService retentionService;
+    @Autowired LogRepository logRepository;
+    @Autowired ArchiveOnCommit archiveOnCommit;
+
+    @TestConfiguration
+    static class LogRetentionTestConfig {
+
+        @Bean
+        ArchiveOnCommit archiveOnCommit() {
+            return new ArchiveOnCommit();
+        }
+    }
+
+    // file 이 있으면 새 트랜잭션이 커밋될 때마다 보관 파일 내용을 남긴다.
+    static class ArchiveOnCommit implements TransactionLifecycleListener {
+
+        volatile Path file;
+        final List<String> contents = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+            Path current = file;
+            if (current != null && frame.isNewTransaction() && failure == null) {
+                try {
+                    contents.add(Files.readString(current));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Test
+    void purgeInChunks() throws InterruptedException {
+        //given
+        Instant cutoff = Instant.now().minus(1, ChronoUnit.HOURS);
+        for (int i = 0; i < 5; i++) {
+            logRepository.save(oldLog("retention_old_" + i, cutoff.minus(1, ChronoUnit.DAYS)));
+        }
+        logRepository.save(new Log("retention_new"));
+
+        //when
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        LogRetentionReport report = retentionService.purgeOlderThan(cutoff, new NdjsonExportSink(Channels.newChannel(archive)));
+        log.info("report={}", report);
+
+        //then
+        // chunk-size=2, 트랜잭션 세 번에 나눠 지운다.
+        assertThat(report.getDeleted()).isEqualTo(5);
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(logRepository.find("retention_old_0")).isEmpty();
+        assertThat(logRepository.find("retention_new")).isPresent();
+
+        String archived = archive.toString(StandardCharsets.UTF_8);
+        assertThat(archived.split("\n")).hasSize(5);
+        assertThat(archived).contains("\"message\":\"retention_old_4\"");
+    }
+
+    @Test
+    void archiveDurableBeforeChunkCommit(@TempDir Path dir) throws Exception {
+        //given
+        Instant cutoff = Instant.now().minus(2, ChronoUnit.HOURS);
+        for (int i = 0; i < 3; i++) {
+            logRepository.save(oldLog("retention_durable_" + i, cutoff.minus(1, ChronoUnit.DAYS)));
+        }
+
+        //when
+        Path file = dir.resolve("archive.ndjson");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            archiveOnCommit.file = file;
+            try {
+                retentionService.purgeOlderThan(cutoff, new NdjsonExportSink(channel));
+            } finally {
+                archiveOnCommit.file = null;
+            }
+        }
+
+        //then: 첫 청크(2개)를 지운 트랜잭션이 커밋될 때 그 행들은 이미 파일에 있다. (end() 전)
+        log.info("archive on commit={}", archiveOnCommit.contents);
+        assertThat(archiveOnCommit.contents).isNotEmpty();
+        assertThat(archiveOnCommit.contents.get(0).split("\n")).hasSizeGreaterThanOrEqualTo(2);
+    }
+
+    private Log oldLog(String message, Instant createdAt) {
+        Log logMessage = new Log(message);
+        logMessage.setCreatedAt(createdAt);
+        return logMessage;
+    }
+}
@@ -0,0 +1,91 @@
+package hello.springtx.propagation;
+
+import hello.springtx.jpa.ReadOnlyQueries;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 회원 10만 건 조회 시 힙 사용량 비교
+ * ./gradlew benchmark --tests "*MemberReadOnlyBenchmark*"
+ *
+ * readWrite: 일반 트랜잭션, 엔티티마다 변경 감지용 스냅샷을 만든다.
+ * readOnly : @Transactional(readOnly = true) 와 같은 설정 + ReadOnlyQueries 힌트, 스냅샷 없음
+ */
+@Slf4j
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "logging.level.org.hibernate.SQL=WARN")
+class MemberReadOnlyBenchmark {
+
+    static final int MEMBER_COUNT = 100_000;
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired EntityManager em;
+
+    @BeforeAll
+    void insertMembers() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            for (int i = 1; i <= MEMBER_COUNT; i++) {
+                em.persist(new Member("readOnlyBenchmark_" + i));
+                if (i % 50 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+
+    @Test
+    void readWrite() {
+        readAll(false);
+    }
+
+    @Test
+    void readOnly() {
+        readAll(true);
+    }
+
+    private void readAll(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+
+        long baseline = usedHeapAfterGc();
+        long allocatedBefore = allocatedBytes();
+        template.executeWithoutResult(status -> {
+            List<Member> members = ReadOnlyQueries.apply(em.createQuery("select m from Member m", Member.class))
+                    .getResultList();
+            long allocated = allocatedBytes() - allocatedBefore;
+            // 트랜잭션이 끝나기 전, 영속성 컨텍스트가 엔티티와 스냅샷을 잡고 있는 상태
+            long retained = usedHeapAfterGc() - baseline;
+
+            log.info("[readOnly={}] members={}, allocated={} KB, retained={} KB", readOnly, members.size(),
+                    allocated / 1024, retained / 1024);
+            assertThat(members.size()).isGreaterThanOrEqualTo(MEMBER_COUNT);
+        });
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,53 @@
+package hello.springtx.propagation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+class MemberRepositoryTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberLookupStatistics statistics;
+
+    @Test
+    void findByNaturalIdFromCache() {
+        //given
+        String username = "naturalId_cache";
+        memberRepository.save(new Member(username));
+        memberRepository.find(username);
+
+        NaturalIdStatistics before = statistics.naturalId();
+        long executions = before.getExecutionCount();
+        long hits = before.getCacheHitCount();
+
+        //when
+        // 두 번째 조회부터는 2차 캐시에서 찾는다.
+        assertThat(memberRepository.find(username)).isPresent();
+
+        //then
+        NaturalIdStatistics after = statistics.naturalId();
+        log.info("naturalId hit={}, miss={}, put={}, execution={}", after.getCacheHitCount(),
+                after.getCacheMissCount(), after.getCachePutCount(), after.getExecutionCount());
+        assertThat(after.getExecutionCount()).isEqualTo(executions);
+        assertThat(after.getCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    void duplicateUsername() {
+        //given
+        String username = "naturalId_duplicate";
+        memberRepository.save(new Member(username));
+
+        //when: username 은 unique 다.
+        assertThatThrownBy(() -> memberRepository.save(new Member(username)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -22,6 +22,9 @@ class MemberServiceTest {
     @Autowired
     LogRepository logRepository;
 
+    @Autowired
+    LogWriteBehindSink logWriteBehindSink;
+
     /**
      * memberService    @Transactional: OFF
      * memberRepository @Transactional: ON
@@ -72,7 +75,7 @@ class MemberServiceTest {
     @Test
     void singleTx(){
         //given
-        String username = "outerTxOff_success";
+        String username = "singleTx"; // username 은 unique 라서 다른 테스트와 겹치지 않게 한다.
 
         //when
         memberService.joinV1(username);
@@ -195,4 +198,54 @@ class MemberServiceTest {
         // 여기 물리 트랜잭션은 롤백이 된다.
         assertTrue(logRepository.find(username).isEmpty());
     }
-}
\ No newline at end of file
+
+    /**
+     * memberService    @Transactional: ON
+     * memberRepository @Transactional: ON
+     * logWriteBehindSink 커밋 이후 비동기 저장
+     */
+    @Test
+    void writeBehindLog_success(){
+        //given
+        String username = "writeBehindLog_success";
+
+        //when
+        memberService.joinV3(username);
+        logWriteBehindSink.flush(); // 백그라운드 writer를 기다리지 않고 바로 저장
+
+        //then: 커밋 이후에 로그가 저장된다.
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isPresent());
+    }
+
+    /**
+     * memberService    @Transactional: ON
+     * memberRepository @Transactional: ON
+     * logRepository    @Transactional: ON(NESTED) Exception
+     */
+    @Test
+    void savepointRecover_success(){
+        //given
+        String username = "로그예외_savepointRecover_success";
+
+        //when
+        memberService.joinV4(username);
+
+        //then: 세이브포인트까지만 롤백, member 는 같은 트랜잭션으로 커밋된다.
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isEmpty());
+    }
+
+    @Test
+    void savepoint_success(){
+        //given
+        String username = "savepoint_success";
+
+        //when
+        memberService.joinV4(username);
+
+        //then
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isPresent());
+    }
+}
@@ -0,0 +1,147 @@
+package hello.springtx.propagation;
+
+import hello.springtx.tx.TransactionFrame;
+import hello.springtx.tx.TransactionLifecycleListener;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+class NestedSavepointTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired LogRepository logRepository;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired EntityManager em;
+    @Autowired PhysicalCommits physicalCommits;
+
+    @TestConfiguration
+    static class NestedSavepointTestConfig {
+
+        @Bean
+        PhysicalCommits physicalCommits() {
+            return new PhysicalCommits();
+        }
+    }
+
+    // 새 물리 트랜잭션의 커밋만 센다. (세이브포인트는 새 트랜잭션이 아니다.)
+    static class PhysicalCommits implements TransactionLifecycleListener {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void afterCommit(TransactionFrame frame, long commitNanos, Throwable failure) {
+            if (frame.isNewTransaction()) {
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    @BeforeEach
+    void reset() {
+        physicalCommits.count.set(0);
+    }
+
+    @Test
+    void singleCommit() {
+        memberService.joinV4("로그예외_savepoint_singleCommit");
+        // REQUIRES_NEW(joinV2) 는 로그 저장에 커밋(롤백)을 하나 더 쓴다.
+        assertThat(physicalCommits.count.get()).isEqualTo(1);
+        assertThat(memberRepository.find("로그예외_savepoint_singleCommit")).isPresent();
+    }
+
+    @Test
+    void persistenceContextRestored() {
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate nested = new TransactionTemplate(txManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+
+        outer.executeWithoutResult(status -> {
+            Log before = new Log("savepoint_before");
+            em.persist(before);
+
+            assertThatThrownBy(() -> nested.executeWithoutResult(nestedStatus -> {
+                before.setMessage("savepoint_changed"); // 세이브포인트 전에 있던 엔티티 변경
+                em.persist(new Member("savepoint_added")); // 세이브포인트 뒤에 저장, flush 전
+                em.persist(new Log("savepoint_flushed"));
+                em.flush(); // 세이브포인트 뒤에 DB 에 반영
+                throw new IllegalStateException("중첩 트랜잭션 롤백");
+            })).isInstanceOf(IllegalStateException.class);
+
+            // 바깥 트랜잭션은 계속 쓸 수 있고, 중첩 트랜잭션의 변경은 영속성 컨텍스트에서도 사라졌다.
+            assertThat(status.isRollbackOnly()).isFalse();
+            assertThat(before.getMessage()).isEqualTo("savepoint_before");
+            assertThat(em.contains(before)).isTrue();
+        });
+
+        assertThat(memberRepository.find("savepoint_added")).isEmpty();
+        assertThat(countLogs("savepoint_before")).isEqualTo(1);
+        assertThat(countLogs("savepoint_changed")).isZero();
+        assertThat(countLogs("savepoint_flushed")).isZero();
+    }
+
+    @Test
+    void databaseFailureRecovered() {
+        // 255자를 넘는 메시지, insert 가 DB 에서 실패한다.
+        String message = "savepoint_dbFailure_" + "x".repeat(300);
+
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        outer.executeWithoutResult(status -> {
+            em.persist(new Member("savepoint_dbFailure"));
+
+            assertThatThrownBy(() -> logRepository.saveNested(new Log(message)))
+                    .isInstanceOf(DataAccessException.class);
+
+            // SavepointFlush 로 flush 했으니 Hibernate 도 트랜잭션 전체를 rollback-only 로 표시하지 않았다.
+            assertThat(status.isRollbackOnly()).isFalse();
+        });
+
+        assertThat(memberRepository.find("savepoint_dbFailure")).isPresent();
+        assertThat(countLogs(message)).isZero();
+    }
+
+    @Test
+    void entityManagerFlushFailureDetected() {
+        String message = "savepoint_emFlush_" + "x".repeat(300);
+        TransactionTemplate outer = new TransactionTemplate(txManager);
+        TransactionTemplate nested = new TransactionTemplate(txManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+
+        // em.flush() 가 실패하면 바깥 트랜잭션도 커밋할 수 없다. 롤백할 때 바로 알린다.
+        assertThatThrownBy(() -> outer.executeWithoutResult(status -> {
+            em.persist(new Member("savepoint_emFlush"));
+
+            assertThatThrownBy(() -> nested.executeWithoutResult(nestedStatus -> {
+                em.persist(new Log(message));
+                em.flush();
+            })).isInstanceOf(UnexpectedRollbackException.class);
+            assertThat(status.isRollbackOnly()).isTrue();
+        })).isInstanceOf(UnexpectedRollbackException.class);
+
+        assertThat(memberRepository.find("savepoint_emFlush")).isEmpty();
+    }
+
+    private long countLogs(String message) {
+        return new TransactionTemplate(txManager).execute(status ->
+                em.createQuery("select count(l) from Log l where l.message = :message", Long.class)
+                        .setParameter("message", message)
+                        .getSingleResult());
+    }
+}
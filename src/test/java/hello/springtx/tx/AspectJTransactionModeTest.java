@@ -0,0 +1,105 @@
+package hello.springtx.tx;
+
+import hello.springtx.tx.aspectj.AspectJWeavingVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.aspectj.AnnotationTransactionAspect;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// ./gradlew test -Paspectj 로 위빙한 빌드에서만 실행된다.
+@Slf4j
+@SpringBootTest(properties = {"tx.advice-mode=aspectj", "tx.metrics.enabled=false"})
+@DirtiesContext // AnnotationTransactionAspect 는 JVM 에 하나라서 다른 테스트 컨텍스트와 같이 두지 않는다.
+class AspectJTransactionModeTest {
+
+    @Autowired CallService callService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void woven() {
+        assumeTrue(AspectJWeavingVerifier.isWoven(CallService.class), "AspectJ 위빙 빌드가 아님 (-Paspectj)");
+    }
+
+    @TestConfiguration
+    static class AspectJTestConfig {
+
+        @Bean
+        CallService callService() {
+            return new CallService();
+        }
+    }
+
+    @Test
+    void noProxy() {
+        log.info("callService class={}", callService.getClass());
+        assertThat(AopUtils.isAopProxy(callService)).isFalse();
+    }
+
+    @Test
+    void transactionManagerSetExplicitly() {
+        // 기본 매니저 캐시를 쓰지 않도록 이 컨텍스트의 매니저를 직접 넣었다.
+        assertThat(AnnotationTransactionAspect.aspectOf().getTransactionManager()).isSameAs(transactionManager);
+    }
+
+    @Test
+    void internalCall() {
+        // 프록시 모드에서는 트랜잭션 없이 실행된다. (InternalCallV1Test)
+        assertThat(callService.external()).isTrue();
+    }
+
+    @Test
+    void nonPublicMethod() {
+        assertThat(callService.packagePrivate()).isTrue();
+    }
+
+    @Test
+    void rollbackOnRuntimeException() {
+        assertThatThrownBy(() -> callService.fail()).isInstanceOf(IllegalStateException.class);
+        assertThat(callService.rolledBack).isTrue();
+    }
+
+    static class CallService {
+
+        volatile boolean rolledBack;
+
+        public boolean external() {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            return internal();
+        }
+
+        @Transactional
+        public boolean internal() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Transactional
+        boolean packagePrivate() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Transactional
+        public void fail() {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    rolledBack = status == STATUS_ROLLED_BACK;
+                }
+            });
+            throw new IllegalStateException("롤백");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.tx.failfast.RollbackOnlyTransactionException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest(properties = "tx.fail-fast-rollback-only.enabled=true")
+class FailFastRollbackOnlyTest {
+
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired EntityManager em;
+
+    @Test
+    void rejectParticipant() {
+        TransactionTemplate outer = template("outer", TransactionDefinition.PROPAGATION_REQUIRED);
+        TransactionTemplate next = template("next", TransactionDefinition.PROPAGATION_REQUIRED);
+
+        assertThatThrownBy(() -> outer.executeWithoutResult(status -> {
+            markRollbackOnly();
+
+            // 커밋 때까지 가지 않고 다음 참여에서 바로 실패한다.
+            assertThatThrownBy(() -> next.executeWithoutResult(s -> em.persist(new Member("failFast_next"))))
+                    .isInstanceOfSatisfying(RollbackOnlyTransactionException.class,
+                            e -> assertThat(e.getMarkedBy()).startsWith("inner"));
+        })).isInstanceOf(UnexpectedRollbackException.class);
+    }
+
+    @Test
+    void rejectStatement() {
+        TransactionTemplate outer = template("outer", TransactionDefinition.PROPAGATION_REQUIRED);
+
+        outer.executeWithoutResult(status -> {
+            markRollbackOnly();
+            status.setRollbackOnly();
+
+            assertThatThrownBy(() -> em.createQuery("select m from Member m", Member.class).getResultList())
+                    .isInstanceOf(RollbackOnlyTransactionException.class)
+                    .hasMessageContaining("markedBy=inner");
+        });
+    }
+
+    @Test
+    void requiresNewAllowed() {
+        TransactionTemplate outer = template("outer", TransactionDefinition.PROPAGATION_REQUIRED);
+        TransactionTemplate requiresNew = template("requiresNew", TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            markRollbackOnly();
+            status.setRollbackOnly();
+
+            // 새 물리 트랜잭션은 rollback-only 와 상관없다.
+            requiresNew.executeWithoutResult(s -> em.persist(new Member("failFast_requiresNew")));
+        });
+
+        // 트랜잭션이 끝나면 표시도 사라진다.
+        Long count = template("count", TransactionDefinition.PROPAGATION_REQUIRED).execute(status ->
+                em.createQuery("select count(m) from Member m where m.username = 'failFast_requiresNew'", Long.class)
+                        .getSingleResult());
+        assertThat(count).isEqualTo(1);
+    }
+
+    // 참여한 안쪽 트랜잭션이 롤백되면서 바깥 물리 트랜잭션을 rollback-only 로 표시한다.
+    private void markRollbackOnly() {
+        TransactionTemplate inner = template("inner", TransactionDefinition.PROPAGATION_REQUIRED);
+        assertThatThrownBy(() -> inner.executeWithoutResult(s -> {
+            throw new IllegalStateException("안쪽 실패");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    private TransactionTemplate template(String name, int propagation) {
+        TransactionTemplate template = new TransactionTemplate(txManager);
+        template.setName(name);
+        template.setPropagationBehavior(propagation);
+        return template;
+    }
+}
@@ -0,0 +1,123 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberBulkJoinService;
+import hello.springtx.tx.parallel.ParallelResult;
+import hello.springtx.tx.parallel.ParallelTransactionTemplate;
+import hello.springtx.tx.parallel.PartitionOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest
+class ParallelTransactionTemplateTest {
+
+    @Autowired ParallelTransactionTemplate parallelTransactionTemplate;
+    @Autowired MemberBulkJoinService memberBulkJoinService;
+    @Autowired EntityManager em;
+
+    @Test
+    void bestEffort() {
+        //given
+        List<String> usernames = usernames("pt_be_", 6);
+
+        //when
+        // 두 번째 파티션(pt_be_3, pt_be_4)만 실패한다.
+        ParallelResult<String, Integer> result = parallelTransactionTemplate.execute(usernames, 2,
+                ParallelTransactionTemplate.Mode.BEST_EFFORT, (partition, status) -> {
+                    partition.forEach(username -> em.persist(new Member(username)));
+                    if (partition.contains("pt_be_3")) {
+                        throw new RuntimeException("파티션 실패");
+                    }
+                    return partition.size();
+                });
+
+        //then
+        log.info("result={}", result);
+        assertThat(result.getOutcomes()).extracting(PartitionOutcome::getStatus).containsExactly(
+                PartitionOutcome.Status.COMMITTED, PartitionOutcome.Status.ROLLED_BACK, PartitionOutcome.Status.COMMITTED);
+        assertThat(result.getResults()).containsExactly(2, 2);
+        assertThat(countMembers("pt_be_")).isEqualTo(4);
+    }
+
+    @Test
+    void failFastCompensatesCommittedPartitions() {
+        //given
+        List<String> usernames = usernames("pt_ff_", 8);
+
+        //when
+        ParallelResult<String, Integer> result = parallelTransactionTemplate.execute(usernames, 2,
+                ParallelTransactionTemplate.Mode.FAIL_FAST, (partition, status) -> {
+                    partition.forEach(username -> em.persist(new Member(username)));
+                    if (partition.contains("pt_ff_1")) {
+                        throw new RuntimeException("파티션 실패");
+                    }
+                    return partition.size();
+                }, (partition, committed) -> em.createQuery("delete from Member m where m.username in :usernames")
+                        .setParameter("usernames", partition)
+                        .executeUpdate());
+
+        //then
+        log.info("result={}", result);
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getOutcomes().get(0).getStatus()).isEqualTo(PartitionOutcome.Status.ROLLED_BACK);
+        // 먼저 커밋된 파티션은 보상 작업으로 되돌리고, 시작 전이던 파티션은 건너뛴다.
+        assertThat(result.count(PartitionOutcome.Status.COMMITTED)).isZero();
+        assertThat(countMembers("pt_ff_")).isZero();
+    }
+
+    @Test
+    void failFastOnError() {
+        //given
+        List<String> usernames = usernames("pt_err_", 8);
+
+        //when: 런타임 예외가 아닌 Error 도 파티션 실패로 처리한다.
+        ParallelResult<String, Integer> result = parallelTransactionTemplate.execute(usernames, 2,
+                ParallelTransactionTemplate.Mode.FAIL_FAST, (partition, status) -> {
+                    partition.forEach(username -> em.persist(new Member(username)));
+                    if (partition.contains("pt_err_1")) {
+                        throw new AssertionError("파티션 실패");
+                    }
+                    return partition.size();
+                }, (partition, committed) -> em.createQuery("delete from Member m where m.username in :usernames")
+                        .setParameter("usernames", partition)
+                        .executeUpdate());
+
+        //then
+        log.info("result={}", result);
+        PartitionOutcome<String, Integer> failed = result.getOutcomes().get(0);
+        assertThat(failed.getStatus()).isEqualTo(PartitionOutcome.Status.ROLLED_BACK);
+        assertThat(failed.getFailure()).isInstanceOf(AssertionError.class);
+        assertThat(result.count(PartitionOutcome.Status.COMMITTED)).isZero();
+        assertThat(countMembers("pt_err_")).isZero();
+    }
+
+    @Test
+    void bulkJoin() {
+        ParallelResult<String, Integer> result = memberBulkJoinService.joinAll(usernames("pt_join_", 20), 5,
+                ParallelTransactionTemplate.Mode.FAIL_FAST);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getResults().stream().mapToInt(Integer::intValue).sum()).isEqualTo(20);
+        assertThat(countMembers("pt_join_")).isEqualTo(20);
+    }
+
+    private long countMembers(String prefix) {
+        return em.createQuery("select count(m) from Member m where m.username like :prefix", Long.class)
+                .setParameter("prefix", prefix + "%")
+                .getSingleResult();
+    }
+
+    private static List<String> usernames(String prefix, int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(i -> prefix + i).collect(Collectors.toList());
+    }
+}
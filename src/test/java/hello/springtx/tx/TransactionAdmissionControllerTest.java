@@ -0,0 +1,156 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.MemberService;
+import hello.springtx.tx.admission.EntryPointStats;
+import hello.springtx.tx.admission.TransactionAdmissionController;
+import hello.springtx.tx.admission.TransactionAdmissionRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest(properties = {
+        "tx.admission.enabled=true",
+        "tx.admission.max-wait=200ms",
+        "tx.admission.nested-depth.[MemberService.joinV1]=1"
+})
+class TransactionAdmissionControllerTest {
+
+    static final String JOIN_V1 = "hello.springtx.propagation.MemberService.joinV1";
+
+    @Autowired MemberService memberService;
+    @Autowired TransactionAdmissionController admissionController;
+    @Autowired BlockingJoin blockingJoin;
+
+    @TestConfiguration
+    static class AdmissionTestConfig {
+
+        @Bean
+        BlockingJoin blockingJoin() {
+            return new BlockingJoin();
+        }
+    }
+
+    // release 가 있으면 joinV1 바깥 트랜잭션을 시작한 직후 멈춘다. (퍼밋과 커넥션을 잡은 채로)
+    static class BlockingJoin implements TransactionLifecycleListener {
+
+        volatile CountDownLatch entered;
+        volatile CountDownLatch release;
+
+        @Override
+        public void afterBegin(TransactionFrame frame) {
+            CountDownLatch current = release;
+            if (current == null || !frame.isNewTransaction() || !JOIN_V1.equals(frame.getName())) {
+                return;
+            }
+            entered.countDown();
+            try {
+                current.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    void admitWithReservedDepth() {
+        //given
+        int poolSize = admissionController.getPoolSize();
+        long admitted = admittedCount("MemberService.joinV1");
+
+        //when
+        // 바깥 트랜잭션 + LogRepository.save(REQUIRES_NEW) = 커넥션 2개를 미리 예약한다.
+        memberService.joinV1("admission_joinV1");
+
+        //then
+        EntryPointStats entryPoint = admissionController.getEntryPoint("MemberService.joinV1");
+        log.info("entryPoint={}", entryPoint);
+        assertThat(entryPoint.getAdmittedCount()).isEqualTo(admitted + 1);
+        assertThat(entryPoint.getObservedDepth()).isEqualTo(1);
+        assertThat(entryPoint.getDepthOverflowCount()).isZero();
+        // 끝나면 예약한 퍼밋을 모두 돌려준다.
+        assertThat(admissionController.getAvailablePermits()).isEqualTo(poolSize);
+    }
+
+    @Test
+    void waitAndRejectWhenPoolIsReserved() throws Exception {
+        //given: joinV1 하나가 퍼밋 2개, poolSize / 2 개가 풀 전체를 예약하고 안에서 멈춘다.
+        int poolSize = admissionController.getPoolSize();
+        int holders = poolSize / 2;
+        long waits = admissionController.getWaitCount();
+        long rejections = admissionController.getRejectedCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(holders);
+        blockingJoin.entered = new CountDownLatch(holders);
+        blockingJoin.release = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < holders; i++) {
+                String username = "admission_holder_" + i;
+                futures.add(executor.submit(() -> memberService.joinV1(username)));
+            }
+            assertThat(blockingJoin.entered.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(admissionController.getAvailablePermits()).isLessThan(2);
+
+            //when: 하나 더 들어오면 커넥션을 잡기 전에 기다리다가 거절된다. (풀 고갈 데드락 대신)
+            assertThatThrownBy(() -> memberService.joinV1("admission_rejected"))
+                    .isInstanceOf(TransactionAdmissionRejectedException.class);
+        } finally {
+            blockingJoin.release.countDown();
+            blockingJoin.release = null;
+        }
+
+        //then: 멈춰 있던 joinV1 은 REQUIRES_NEW 커넥션까지 받아서 모두 끝난다.
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        EntryPointStats entryPoint = admissionController.getEntryPoint("MemberService.joinV1");
+        log.info("entryPoint={}", entryPoint);
+        assertThat(admissionController.getWaitCount()).isEqualTo(waits + 1);
+        assertThat(admissionController.getRejectedCount()).isEqualTo(rejections + 1);
+        assertThat(entryPoint.getWaitCount()).isPositive();
+        assertThat(entryPoint.getRejectedCount()).isPositive();
+        assertThat(entryPoint.getDepthOverflowCount()).isZero();
+        assertThat(admissionController.getAvailablePermits()).isEqualTo(poolSize);
+    }
+
+    @Test
+    void observedDepthFallback() {
+        //when: joinV2 는 nested-depth 설정이 없다. 첫 호출은 깊이 0 으로 예약하고 REQUIRES_NEW 가 넘친다.
+        memberService.joinV2("admission_joinV2_first");
+
+        //then
+        EntryPointStats entryPoint = admissionController.getEntryPoint("MemberService.joinV2");
+        log.info("entryPoint={}", entryPoint);
+        assertThat(entryPoint.getConfiguredDepth()).isZero();
+        assertThat(entryPoint.getDepthOverflowCount()).isEqualTo(1);
+        assertThat(entryPoint.getObservedDepth()).isEqualTo(1);
+
+        //when: 다음 호출부터는 관측한 깊이(1)만큼 예약하니 넘치지 않는다.
+        memberService.joinV2("admission_joinV2_second");
+
+        //then
+        assertThat(entryPoint.getDepthOverflowCount()).isEqualTo(1);
+    }
+
+    private long admittedCount(String name) {
+        EntryPointStats entryPoint = admissionController.getEntryPoint(name);
+        return entryPoint != null ? entryPoint.getAdmittedCount() : 0;
+    }
+}
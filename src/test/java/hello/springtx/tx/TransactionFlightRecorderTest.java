@@ -0,0 +1,110 @@
+package hello.springtx.tx;
+
+import hello.springtx.tx.recorder.TransactionEvent;
+import hello.springtx.tx.recorder.TransactionEventType;
+import hello.springtx.tx.recorder.TransactionFlightRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+class TransactionFlightRecorderTest {
+
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired TransactionFlightRecorder recorder;
+
+    @BeforeEach
+    void clear() {
+        recorder.clear();
+    }
+
+    @Test
+    void inner_rollback() {
+        TransactionStatus outer = txManager.getTransaction(named("outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        TransactionStatus inner = txManager.getTransaction(named("inner", TransactionDefinition.PROPAGATION_REQUIRED));
+        txManager.rollback(inner);
+        assertThatThrownBy(() -> txManager.commit(outer))
+                .isInstanceOf(UnexpectedRollbackException.class);
+
+        List<TransactionEvent> events = recorder.dump();
+        log.info("events=\n{}", TransactionFlightRecorder.format(events));
+        assertThat(events).extracting(TransactionEvent::getType).containsExactly(
+                TransactionEventType.BEGIN,
+                TransactionEventType.JOIN,
+                TransactionEventType.MARK_ROLLBACK_ONLY,
+                TransactionEventType.ROLLBACK);
+        assertThat(events).extracting(TransactionEvent::getTransactionName)
+                .containsExactly("outer", "inner", "inner", "outer");
+    }
+
+    @Test
+    void inner_rollback_requires_new() {
+        TransactionStatus outer = txManager.getTransaction(named("outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        TransactionStatus inner = txManager.getTransaction(named("inner", TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        txManager.rollback(inner);
+        txManager.commit(outer);
+
+        List<TransactionEvent> events = recorder.dump();
+        log.info("events=\n{}", TransactionFlightRecorder.format(events));
+        assertThat(events).extracting(TransactionEvent::getType).containsExactly(
+                TransactionEventType.BEGIN,
+                TransactionEventType.SUSPEND,
+                TransactionEventType.BEGIN,
+                TransactionEventType.ROLLBACK,
+                TransactionEventType.RESUME,
+                TransactionEventType.COMMIT);
+    }
+
+    @Test
+    void ringOverwritesOldest() {
+        TransactionFlightRecorder small = new TransactionFlightRecorder(4, false);
+        TransactionFrame frame = new TransactionFrame(new SimpleTransactionStatus(true),
+                named("tx", TransactionDefinition.PROPAGATION_REQUIRED), false, 0, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            small.afterBegin(frame);
+            small.afterCommit(frame, 0, null);
+        }
+        // 용량 4, 오래된 이벤트부터 덮어쓴다.
+        List<TransactionEvent> events = small.dump();
+        assertThat(events).hasSize(4);
+        assertThat(events.get(0).getSequence()).isEqualTo(2);
+    }
+
+    @Test
+    void pruneRingsOfFinishedThreads() throws InterruptedException {
+        TransactionFlightRecorder recorder = new TransactionFlightRecorder(4, false);
+        TransactionFrame frame = new TransactionFrame(new SimpleTransactionStatus(true),
+                named("tx", TransactionDefinition.PROPAGATION_REQUIRED), false, 0, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            Thread thread = new Thread(() -> recorder.afterBegin(frame));
+            thread.start();
+            thread.join();
+        }
+        assertThat(recorder.getRingCount()).isEqualTo(3);
+
+        // 새 스레드의 버퍼를 만들 때 끝난 스레드의 버퍼를 버린다.
+        recorder.afterBegin(frame);
+        assertThat(recorder.getRingCount()).isEqualTo(1);
+    }
+
+    private static DefaultTransactionAttribute named(String name, int propagation) {
+        DefaultTransactionAttribute definition = new DefaultTransactionAttribute();
+        definition.setName(name);
+        definition.setPropagationBehavior(propagation);
+        return definition;
+    }
+}
@@ -0,0 +1,116 @@
+package hello.springtx.tx;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberService;
+import hello.springtx.tx.metrics.TransactionMethodMetrics;
+import hello.springtx.tx.metrics.TransactionMetricsRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+class TransactionMetricsRegistryTest {
+
+    @Autowired TransactionMetricsRegistry registry;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired LogRepository logRepository;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void reset() {
+        registry.reset();
+    }
+
+    @Test
+    void orderOutcomes() throws NotEnoughMoneyException {
+        //when
+        orderService.order(newOrder("정상"));
+        assertThatThrownBy(() -> orderService.order(newOrder("예외"))).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> orderService.order(newOrder("잔고부족"))).isInstanceOf(NotEnoughMoneyException.class);
+
+        //then
+        TransactionMethodMetrics metrics = registry.get("hello.springtx.order.OrderService.order");
+        log.info("metrics={}", metrics);
+        assertThat(metrics.getPropagation()).isEqualTo("REQUIRED");
+        assertThat(metrics.getNewTransactionCount()).isEqualTo(3);
+        // 체크 예외는 커밋, 런타임 예외는 롤백
+        assertThat(metrics.getCommitCount()).isEqualTo(2);
+        assertThat(metrics.getRollbackCount()).isEqualTo(1);
+        assertThat(metrics.getOutcomes())
+                .containsEntry(TransactionMethodMetrics.SUCCESS, 1L)
+                .containsEntry(RuntimeException.class.getName(), 1L)
+                .containsEntry(NotEnoughMoneyException.class.getName(), 1L);
+        assertThat(metrics.getTransactionDuration().snapshot().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void requiresNewSuspension() {
+        //when
+        memberService.joinV1("metrics_joinV1");
+
+        //then: LogRepository.save(REQUIRES_NEW) 는 바깥 트랜잭션을 보류시킨다.
+        TransactionMethodMetrics save = registry.get("hello.springtx.propagation.LogRepository.save");
+        log.info("metrics={}", save);
+        assertThat(save.getPropagation()).isEqualTo("REQUIRES_NEW");
+        assertThat(save.getSuspensionCount()).isEqualTo(1);
+
+        TransactionMethodMetrics memberSave = registry.get("hello.springtx.propagation.MemberRepository.save");
+        assertThat(memberSave.getJoinedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void flushCounts() {
+        //when: Member 만 변경한 트랜잭션에서 Log 조회는 flush 하지 않고, Member 조회는 flush 한다.
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName("flush_querySpace");
+        template.executeWithoutResult(status -> {
+            em.persist(new Member("metrics_flush1"));
+            logRepository.find("metrics_flush1");
+            em.createQuery("select m from Member m", Member.class).getResultList();
+        });
+
+        //then
+        TransactionMethodMetrics querySpace = registry.get("flush_querySpace");
+        log.info("metrics={}", querySpace);
+        assertThat(querySpace.getFlushedTransactionCount()).isEqualTo(1);
+        assertThat(querySpace.getAutoFlushCount()).isEqualTo(1);
+        assertThat(querySpace.getAutoFlushCheckCount()).isEqualTo(0);
+        assertThat(querySpace.getFlushCount()).isEqualTo(1); // 커밋
+
+        //when: 일반 JPQL 은 관계없는 쿼리에도 전체 변경 감지를 한다.
+        template.setName("flush_plain");
+        template.executeWithoutResult(status -> {
+            em.persist(new Member("metrics_flush2"));
+            em.createQuery("select l from Log l", Log.class).getResultList();
+        });
+
+        //then
+        TransactionMethodMetrics plain = registry.get("flush_plain");
+        log.info("metrics={}", plain);
+        assertThat(plain.getAutoFlushCount()).isEqualTo(0);
+        assertThat(plain.getAutoFlushCheckCount()).isEqualTo(1);
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
@@ -0,0 +1,114 @@
+package hello.springtx.tx;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.Log;
+import hello.springtx.tx.precompute.PrecomputedTransactionAttributeSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "precompute.test.timeout=3",
+        "precompute.test.label=precompute"
+})
+class TransactionPrecomputeTest {
+
+    @Autowired PrecomputedTransactionAttributeSource attributeSource;
+    @Autowired TransactionInterceptor transactionInterceptor;
+    @Autowired EntityManagerFactory emf;
+
+    @TestConfiguration
+    static class PrecomputeTestConfig {
+
+        @Bean
+        PrecomputeTarget precomputeTarget() {
+            return new PrecomputeTarget();
+        }
+    }
+
+    static class PrecomputeTarget {
+
+        @Transactional(rollbackFor = ParentCheckedException.class)
+        public void rollbackFor() throws ParentCheckedException {
+        }
+
+        @Transactional(timeoutString = "${precompute.test.timeout}", label = "${precompute.test.label}")
+        public void placeholders() {
+        }
+    }
+
+    // 표를 채울 때 인스턴스를 만들 수 있도록 public 으로 둔다.
+    public static class ParentCheckedException extends Exception {
+    }
+
+    // 표에 없는 하위 타입
+    public static class ChildCheckedException extends ParentCheckedException {
+    }
+
+    @Test
+    void interceptorUsesPrecomputedSource() {
+        assertThat(transactionInterceptor.getTransactionAttributeSource()).isSameAs(attributeSource);
+        assertThat(attributeSource.size()).isPositive();
+    }
+
+    @Test
+    void rollbackRulesUnchanged() throws NoSuchMethodException {
+        Method order = OrderService.class.getMethod("order", Order.class);
+        TransactionAttribute attribute = attributeSource.getTransactionAttribute(order, OrderService.class);
+
+        // 미리 계산해도 기본 규칙은 그대로: 런타임 예외는 롤백, 체크 예외는 커밋
+        assertThat(attribute).isNotNull();
+        assertThat(attribute.rollbackOn(new RuntimeException())).isTrue();
+        assertThat(attribute.rollbackOn(new NotEnoughMoneyException("잔고 부족"))).isFalse();
+        assertThat(attribute.rollbackOn(new IllegalStateException())).isTrue();
+    }
+
+    @Test
+    void rollbackForHierarchy() throws NoSuchMethodException {
+        Method rollbackFor = PrecomputeTarget.class.getMethod("rollbackFor");
+        TransactionAttribute attribute = attributeSource.getTransactionAttribute(rollbackFor, PrecomputeTarget.class);
+
+        // rollbackFor 에 적은 타입과 그 하위 타입(표에 없음)은 롤백, 관계없는 체크 예외는 커밋
+        assertThat(attribute).isNotNull();
+        assertThat(attribute.rollbackOn(new ParentCheckedException())).isTrue();
+        assertThat(attribute.rollbackOn(new ChildCheckedException())).isTrue();
+        assertThat(attribute.rollbackOn(new Exception())).isFalse();
+        assertThat(attribute.rollbackOn(new RuntimeException())).isTrue();
+    }
+
+    @Test
+    void placeholdersResolved() throws NoSuchMethodException {
+        Method placeholders = PrecomputeTarget.class.getMethod("placeholders");
+        TransactionAttribute attribute = attributeSource.getTransactionAttribute(placeholders, PrecomputeTarget.class);
+
+        // 원래 속성 소스처럼 ${...} 를 풀어서 적용한다.
+        assertThat(attribute).isNotNull();
+        assertThat(attribute.getTimeout()).isEqualTo(3);
+        assertThat(attribute.getLabels()).containsExactly("precompute");
+    }
+
+    @Test
+    void namedQueriesRegistered() {
+        // 이름 있는 쿼리는 시작할 때 파싱되어 등록된다. (오타가 있으면 컨텍스트가 뜨지 않는다.)
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.createNamedQuery(Log.FIND_BY_MESSAGE);
+            em.createNamedQuery(Order.FIND_CLAIMABLE_IDS);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package hello.springtx.tx;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.propagation.Log;
+import hello.springtx.tx.retry.RetryStats;
+import hello.springtx.tx.retry.RetryableTransaction;
+import hello.springtx.tx.retry.RetryableTransactionInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+class TransactionRetryTest {
+
+    static final String FLAKY = "hello.springtx.tx.TransactionRetryTest$FlakyService.";
+
+    @Autowired FlakyService flakyService;
+    @Autowired RetryableTransactionInterceptor retryInterceptor;
+    @Autowired PlatformTransactionManager txManager;
+
+    @TestConfiguration
+    static class RetryTestConfig {
+
+        @Bean
+        FlakyService flakyService() {
+            return new FlakyService();
+        }
+    }
+
+    @BeforeEach
+    void reset() {
+        flakyService.reset();
+    }
+
+    @Test
+    void retryTransientFailureInNewTransaction() {
+        //given
+        flakyService.failNext(2);
+
+        //when
+        flakyService.lockTimeout();
+
+        //then
+        // 시도마다 새 트랜잭션이다.
+        assertThat(flakyService.newTransactions()).containsExactly(true, true, true);
+        RetryStats stats = retryInterceptor.getStats(FLAKY + "lockTimeout");
+        log.info("stats={}", stats);
+        assertThat(stats.getRetryCount()).isEqualTo(2);
+        assertThat(stats.getRecoveredCount()).isEqualTo(1);
+    }
+
+    @Test
+    void giveUpAfterMaxAttempts() {
+        flakyService.failNext(10);
+
+        assertThatThrownBy(() -> flakyService.lockTimeout()).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(flakyService.newTransactions()).hasSize(3);
+        assertThat(retryInterceptor.getStats(FLAKY + "lockTimeout").getExhaustedCount()).isPositive();
+    }
+
+    @Test
+    void neverRetryCheckedException() {
+        // 체크 예외는 커밋된다. 다시 실행하면 두 번 커밋된다.
+        assertThatThrownBy(() -> flakyService.notEnoughMoney()).isInstanceOf(NotEnoughMoneyException.class);
+
+        assertThat(flakyService.newTransactions()).hasSize(1);
+        assertThat(retryInterceptor.getStats(FLAKY + "notEnoughMoney").getNonRetryableCount()).isEqualTo(1);
+    }
+
+    @Test
+    void neverRetryPermanentFailure() {
+        assertThatThrownBy(() -> flakyService.systemException()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flakyService.newTransactions()).hasSize(1);
+    }
+
+    @Test
+    void noRetryInsideOuterTransaction() {
+        flakyService.failNext(1);
+
+        // 바깥 트랜잭션에 참여했으니 재시도하지 않고 그대로 던진다.
+        assertThatThrownBy(() -> new TransactionTemplate(txManager).executeWithoutResult(status -> flakyService.lockTimeout()))
+                .isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(flakyService.newTransactions()).containsExactly(false);
+        assertThat(retryInterceptor.getStats(FLAKY + "lockTimeout").getJoinedCount()).isPositive();
+    }
+
+    @Test
+    void resetNewEntityBeforeRetry() {
+        flakyService.failNext(1);
+        Log log = new Log("retry_newEntity");
+
+        flakyService.persistThenLockTimeout(log);
+
+        // 롤백된 첫 시도가 채운 id 를 비우고 다시 persist 한다.
+        assertThat(flakyService.idsBeforePersist()).containsExactly(null, null);
+        assertThat(log.getId()).isNotNull();
+    }
+
+    static class FlakyService {
+
+        @PersistenceContext
+        private EntityManager em;
+
+        // 프록시(CGLIB)를 통해 주고받도록 필드 대신 매서드로 연다.
+        private int failures;
+        private final List<Boolean> newTransactions = new ArrayList<>();
+        private final List<Long> idsBeforePersist = new ArrayList<>();
+
+        public void failNext(int failures) {
+            this.failures = failures;
+        }
+
+        public List<Boolean> newTransactions() {
+            return newTransactions;
+        }
+
+        public List<Long> idsBeforePersist() {
+            return idsBeforePersist;
+        }
+
+        public void reset() {
+            failures = 0;
+            newTransactions.clear();
+            idsBeforePersist.clear();
+        }
+
+        @RetryableTransaction(backoffMillis = 1)
+        @Transactional
+        public void persistThenLockTimeout(Log log) {
+            idsBeforePersist.add(log.getId());
+            em.persist(log);
+            em.flush();
+            if (failures-- > 0) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+        }
+
+        @RetryableTransaction(backoffMillis = 1)
+        @Transactional
+        public void lockTimeout() {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            if (failures-- > 0) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+        }
+
+        @RetryableTransaction(backoffMillis = 1)
+        @Transactional
+        public void notEnoughMoney() throws NotEnoughMoneyException {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            throw new NotEnoughMoneyException("잔고가 부족합니다.");
+        }
+
+        @RetryableTransaction(backoffMillis = 1)
+        @Transactional
+        public void systemException() {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            throw new IllegalStateException("시스템 예외");
+        }
+    }
+}
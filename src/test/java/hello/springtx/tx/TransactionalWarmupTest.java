@@ -0,0 +1,125 @@
+package hello.springtx.tx;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.tx.warmup.TransactionalWarmup;
+import hello.springtx.tx.warmup.WarmupOutcome;
+import hello.springtx.tx.warmup.WarmupReport;
+import hello.springtx.tx.warmup.WarmupTask;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest(properties = {"tx.warmup.threads=4", "tx.warmup.fail-on-error=false"})
+class TransactionalWarmupTest {
+
+    @Autowired TransactionalWarmup transactionalWarmup;
+    @Autowired WarmupTasks warmupTasks;
+
+    @TestConfiguration
+    static class WarmupTestConfig {
+
+        @Bean
+        WarmupTasks warmupTasks(EntityManager em) {
+            return new WarmupTasks(em);
+        }
+    }
+
+    @Test
+    void warmupRunsAfterReady() {
+        // 컨텍스트가 뜰 때(ApplicationReadyEvent) 이미 실행되었다.
+        WarmupReport report = transactionalWarmup.getLastReport();
+        log.info("report={}", report);
+
+        assertThat(report).isNotNull();
+        assertThat(report.get("codes.load").getStatus()).isEqualTo(WarmupOutcome.Status.COMMITTED);
+        assertThat(report.get("codes.verify").getStatus()).isEqualTo(WarmupOutcome.Status.COMMITTED);
+        assertThat(report.get("broken").getStatus()).isEqualTo(WarmupOutcome.Status.ROLLED_BACK);
+        assertThat(report.get("afterBroken").getStatus()).isEqualTo(WarmupOutcome.Status.SKIPPED);
+    }
+
+    @Test
+    void eachTaskInItsOwnTransaction() {
+        assertThat(warmupTasks.transactional).isTrue();
+        // codes.verify 는 codes.load 가 커밋한 뒤에 시작하므로 적재한 데이터를 본다.
+        assertThat(warmupTasks.codesVisible).isTrue();
+    }
+
+    @Test
+    void independentTasksRunInParallel() {
+        // 서로 기다리는 두 작업이 모두 끝났다면 동시에 실행된 것이다.
+        assertThat(warmupTasks.parallel.getCount()).isZero();
+        assertThat(transactionalWarmup.getLastReport().get("parallel.a").getStatus()).isEqualTo(WarmupOutcome.Status.COMMITTED);
+        assertThat(transactionalWarmup.getLastReport().get("parallel.b").getStatus()).isEqualTo(WarmupOutcome.Status.COMMITTED);
+    }
+
+    static class WarmupTasks {
+
+        private final EntityManager em;
+
+        final CountDownLatch parallel = new CountDownLatch(2);
+        volatile boolean transactional = true;
+        volatile boolean codesVisible;
+
+        WarmupTasks(EntityManager em) {
+            this.em = em;
+        }
+
+        @WarmupTask("codes.load")
+        public void loadCodes() {
+            checkTransaction();
+            em.persist(new Member("warmup_code"));
+        }
+
+        @WarmupTask(value = "codes.verify", dependsOn = "codes.load", readOnly = true)
+        public void verifyCodes() {
+            checkTransaction();
+            codesVisible = !em.createQuery("select m from Member m where m.username = 'warmup_code'", Member.class)
+                    .getResultList().isEmpty();
+        }
+
+        @WarmupTask("parallel.a")
+        public void parallelA() throws InterruptedException {
+            meet();
+        }
+
+        @WarmupTask("parallel.b")
+        public void parallelB() throws InterruptedException {
+            meet();
+        }
+
+        @WarmupTask("broken")
+        public void broken() {
+            throw new IllegalStateException("warm-up 실패");
+        }
+
+        @WarmupTask(value = "afterBroken", dependsOn = "broken")
+        public void afterBroken() {
+            throw new AssertionError("앞 작업이 실패하면 실행되지 않아야 합니다.");
+        }
+
+        private void meet() throws InterruptedException {
+            checkTransaction();
+            parallel.countDown();
+            if (!parallel.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("다른 작업이 동시에 실행되지 않았습니다.");
+            }
+        }
+
+        private void checkTransaction() {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                transactional = false;
+            }
+        }
+    }
+}